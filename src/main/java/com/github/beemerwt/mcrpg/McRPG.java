@@ -1,20 +1,28 @@
 package com.github.beemerwt.mcrpg;
 
 import com.github.beemerwt.mcrpg.command.AdminCommand;
+import com.github.beemerwt.mcrpg.command.LeaderboardCommand;
 import com.github.beemerwt.mcrpg.command.SkillCommand;
 import com.github.beemerwt.mcrpg.events.*;
 import com.github.beemerwt.mcrpg.managers.ConfigManager;
 import com.github.beemerwt.mcrpg.data.PlayerStore;
+import com.github.beemerwt.mcrpg.abilities.DoubleDrops;
+import com.github.beemerwt.mcrpg.abilities.TreeFeller;
 import com.github.beemerwt.mcrpg.managers.AbilityManager;
+import com.github.beemerwt.mcrpg.managers.LeaderboardManager;
 import com.github.beemerwt.mcrpg.skills.*;
 import com.github.beemerwt.mcrpg.ui.HealthbarHover;
 import com.github.beemerwt.mcrpg.ui.XpBossbarManager;
+import com.github.beemerwt.mcrpg.util.BlockClassifier;
 import com.github.beemerwt.mcrpg.util.FabricLogger;
+import com.github.beemerwt.mcrpg.util.ItemClassifier;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerConfigurationConnectionEvents;
 import net.minecraft.server.MinecraftServer;
 
 public class McRPG implements ModInitializer {
@@ -38,8 +46,19 @@ public class McRPG implements ModInitializer {
         LOG.info("Initializing");
         ConfigManager.init();            // loads defaults + overrides
         AbilityManager.init();
+        TreeFeller.init();
+        DoubleDrops.init();
+
+        // Modded blocks and datapack tags are only final once tags load; recompile the block/item tables then
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+            if (client) return;
+            ConfigManager.rebuildBlockIndex();
+            BlockClassifier.rebuild();
+            ItemClassifier.rebuild();
+        });
 
         store = PlayerStore.create();
+        LeaderboardManager.init(store);
         BlockEvents.register();
         AbilityEvents.register();
         CombatEvents.register();
@@ -47,6 +66,7 @@ public class McRPG implements ModInitializer {
         CommandRegistrationCallback.EVENT.register((d, access, regEnv) -> {
                 SkillCommand.register(d);
                 AdminCommand.register(d);
+                LeaderboardCommand.register(d);
         });
 
         XpBossbarManager.init();
@@ -59,9 +79,17 @@ public class McRPG implements ModInitializer {
         Smelting.register();
         Swords.register();
 
+        // Load player data off-thread while the client is still configuring
+        ServerConfigurationConnectionEvents.BEFORE_CONFIGURE.register((handler, s) -> {
+            var profile = handler.getDebugProfile();
+            store.prefetch(profile.id(), profile.name());
+        });
+
+        ServerConfigurationConnectionEvents.DISCONNECT.register((handler, s) ->
+            store.discardPrefetch(handler.getDebugProfile().id()));
+
         ServerPlayerEvents.JOIN.register(player -> {
-            store.ensurePlayerRow(player.getUuid(), player.getStringifiedName());
-            store.get(player); // touch the player to load or create their data
+            store.get(player); // picks up the prefetched data, or loads/creates it now
         });
 
         lastSave = System.currentTimeMillis();
@@ -4,44 +4,92 @@ package com.github.beemerwt.mcrpg.abilities;
 import com.github.beemerwt.mcrpg.McRPG;
 import com.github.beemerwt.mcrpg.config.ability.DoubleDropsConfig;
 import com.github.beemerwt.mcrpg.data.Leveling;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.block.Block;
-import net.minecraft.entity.ItemEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Double Drops: a proc doubles the stacks a block drops.
+ * - A proc from a player's break is remembered, and the bonus is merged into that block's vanilla
+ *   drops when Block.dropStacks evaluates them (see BlockDropStacksMixin). No extra item entities.
+ * - Callers that collect drops themselves (Tree Feller) just {@link #roll}.
+ * Rolls use one server-thread Random; {@link #useRandom} swaps it for a seeded one.
+ */
 public class DoubleDrops {
+    private static Random random = Random.create();
+
+    // The proc'd break still waiting for its vanilla drops; cleared each tick in case they never come
+    private static @Nullable World pendingWorld = null;
+    private static long pendingPos = 0L;
+
+    public static void init() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> pendingWorld = null);
+    }
+
+    /** Replace the roll source, e.g. with {@code Random.create(seed)} for reproducible rolls. */
+    public static void useRandom(Random source) {
+        random = source;
+    }
+
+    /**
+     * Rolls the proc chance only, for callers that handle the extra drops themselves.
+     * @param doubleDrops Config for this ability.
+     * @param skillLevel Player's skill level.
+     * @return True if the ability proc'd.
+     */
+    public static boolean roll(DoubleDropsConfig doubleDrops, int skillLevel) {
+        double chance = Leveling.getScaledPercentage(doubleDrops.baseChance, doubleDrops.maxChance, skillLevel);
+        return random.nextDouble() < chance;
+    }
 
     /**
-     * Spawns a second copy of all drops at the given position if the proc chance succeeds.
+     * Doubles the drops of a block a player is breaking if the proc chance succeeds.
+     * Must be called before vanilla drops the block, i.e. from the block break event.
      * @param doubleDrops Config for this ability.
      * @param skillLevel Player's skill level.
      * @param world World returned from break event.
      * @param pos Position of the block broken.
      * @param block The block that was broken.
-     * @param drops The original drops from the block break event.
-     * @return True if the ability proc'd and drops were spawned, false otherwise.
+     * @return True if the ability proc'd, false otherwise.
      */
     public static boolean processTrigger(DoubleDropsConfig doubleDrops, int skillLevel,
-                                  ServerWorld world, BlockPos pos, Block block, List<ItemStack> drops)
+                                  ServerWorld world, BlockPos pos, Block block)
     {
-        double chance = Leveling.getScaledPercentage(doubleDrops.baseChance, doubleDrops.maxChance, skillLevel);
-        if (Math.random() > chance) return false;
+        if (!roll(doubleDrops, skillLevel)) return false;
 
         McRPG.getLogger().debug("Double drop proc on block {}", block.getName());
+        pendingWorld = world;
+        pendingPos = pos.asLong();
+        return true;
+    }
 
-        double cx = pos.getX() + 0.5;
-        double cy = pos.getY() + 0.5;
-        double cz = pos.getZ() + 0.5;
+    /**
+     * Called with the stacks a block is about to drop. If that block's break proc'd, returns the stacks
+     * with every count doubled (split at the max stack size); otherwise returns them untouched.
+     */
+    public static List<ItemStack> applyPending(World world, BlockPos pos, List<ItemStack> drops) {
+        if (world != pendingWorld || pos.asLong() != pendingPos) return drops;
+        pendingWorld = null;
 
-        for (var s : drops) {
-            // Spawn through ServerWorld so Telekinesis mixin sees it and captures.
-            var entity = new ItemEntity(world, cx, cy, cz, s.copy());
-            world.spawnEntity(entity);
-        }
+        List<ItemStack> doubled = new ArrayList<>(drops.size() + 1);
+        for (ItemStack stack : drops) {
+            if (stack.isEmpty()) continue;
 
-        return true;
+            int total = stack.getCount() * 2;
+            while (total > 0) {
+                int n = Math.min(total, stack.getMaxCount());
+                doubled.add(stack.copyWithCount(n));
+                total -= n;
+            }
+        }
+        return doubled;
     }
 }
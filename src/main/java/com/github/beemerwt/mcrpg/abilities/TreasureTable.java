@@ -0,0 +1,240 @@
+package com.github.beemerwt.mcrpg.abilities;
+
+import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.config.skills.ExcavationConfig;
+import net.minecraft.block.Block;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Excavation treasures compiled per source block and per level bracket.
+ * - A bracket is the set of treasures unlocked between two consecutive level requirements.
+ * - Each bracket stores its no-win probability and an alias table over the winners, so a roll is
+ *   a binary search over a handful of thresholds plus three random numbers.
+ * - Same distribution as before: any certain (100%) treasures win uniformly; otherwise nothing drops
+ *   with probability prod(1 - p), and the winner is picked proportional to -log(1 - p).
+ * - An entry with an empty dropsFrom drops from any block; dropsFrom accepts block ids and #tags.
+ * Resolves item and block references, so it is rebuilt with the block tables on reload and tag reload.
+ */
+public final class TreasureTable {
+    public static final TreasureTable EMPTY = new TreasureTable(new PerBlock[0], null);
+
+    /** One resolved treasure: what to drop and the XP it gives. */
+    public record Treasure(Item item, int amount, long xp) {}
+
+    private final PerBlock[] byBlock; // indexed by block raw id; null means only the any-block treasures
+    private final @Nullable PerBlock anyBlock;
+
+    private TreasureTable(PerBlock[] byBlock, @Nullable PerBlock anyBlock) {
+        this.byBlock = byBlock;
+        this.anyBlock = anyBlock;
+    }
+
+    /** Roll for a treasure when {@code block} is dug at {@code level}; null if nothing drops. */
+    public @Nullable Treasure roll(Block block, int level) {
+        int raw = Registries.BLOCK.getRawId(block);
+        PerBlock t = (raw >= 0 && raw < byBlock.length && byBlock[raw] != null) ? byBlock[raw] : anyBlock;
+        if (t == null) return null;
+
+        Bracket b = t.at(level);
+        return (b != null) ? b.roll(ThreadLocalRandom.current()) : null;
+    }
+
+    // ---------- Compilation ----------
+
+    private record Source(Treasure treasure, double p, int level) {}
+
+    public static TreasureTable compile(Map<String, ExcavationConfig.TreasureEntry> treasures) {
+        if (treasures == null || treasures.isEmpty()) return EMPTY;
+
+        int size = Registries.BLOCK.size();
+        @SuppressWarnings("unchecked")
+        List<Source>[] specific = new List[size];
+        List<Source> any = new ArrayList<>();
+
+        for (var me : treasures.entrySet()) {
+            ExcavationConfig.TreasureEntry e = me.getValue();
+            if (e == null) continue;
+
+            Identifier itemId = Identifier.tryParse(me.getKey());
+            Item item = (itemId != null) ? Registries.ITEM.get(itemId) : Items.AIR;
+            if (item == Items.AIR) {
+                McRPG.getLogger().warning("Excavation treasure {} is not a known item; skipping", me.getKey());
+                continue;
+            }
+
+            double p = chanceOf(e);
+            if (p <= 0.0) continue;
+
+            Source src = new Source(new Treasure(item, e.amount, e.xp), p, e.levelRequirement);
+            if (e.dropsFrom == null || e.dropsFrom.isEmpty()) {
+                any.add(src);
+                continue;
+            }
+
+            for (int raw : resolveBlocks(e.dropsFrom, size)) {
+                if (specific[raw] == null) specific[raw] = new ArrayList<>();
+                specific[raw].add(src);
+            }
+        }
+
+        PerBlock anyBlock = any.isEmpty() ? null : PerBlock.of(any);
+        PerBlock[] byBlock = new PerBlock[size];
+        for (int raw = 0; raw < size; raw++) {
+            if (specific[raw] == null) continue;
+            specific[raw].addAll(any);
+            byBlock[raw] = PerBlock.of(specific[raw]);
+        }
+
+        return new TreasureTable(byBlock, anyBlock);
+    }
+
+    private static int[] resolveBlocks(List<String> keys, int size) {
+        int[] out = new int[keys.size()];
+        int n = 0;
+        for (String key : keys) {
+            if (key == null) continue;
+
+            if (key.startsWith("#")) {
+                Identifier tagId = Identifier.tryParse(key.substring(1));
+                if (tagId == null) continue;
+                for (RegistryEntry<Block> entry : Registries.BLOCK.iterateEntries(TagKey.of(RegistryKeys.BLOCK, tagId))) {
+                    int raw = Registries.BLOCK.getRawId(entry.value());
+                    if (raw < 0 || raw >= size) continue;
+                    if (n == out.length) out = Arrays.copyOf(out, n * 2 + 1);
+                    out[n++] = raw;
+                }
+                continue;
+            }
+
+            Identifier id = Identifier.tryParse(key);
+            if (id == null || !Registries.BLOCK.containsId(id)) {
+                McRPG.getLogger().debug("Excavation treasure lists unknown block {}", key);
+                continue;
+            }
+            if (n == out.length) out = Arrays.copyOf(out, n * 2 + 1);
+            out[n++] = Registries.BLOCK.getRawId(Registries.BLOCK.get(id));
+        }
+
+        // Tags may overlap literals; a treasure must only count once per block
+        return Arrays.stream(out, 0, n).distinct().toArray();
+    }
+
+    private static double chanceOf(ExcavationConfig.TreasureEntry e) {
+        double p = e.dropChance * 0.01;
+        if (p <= 0.0) return 0.0;
+        return Math.min(p, 1.0);
+    }
+
+    /** Brackets for one block; brackets[i] applies from thresholds[i] up to the next threshold. */
+    private static final class PerBlock {
+        final int[] thresholds;
+        final Bracket[] brackets;
+
+        private PerBlock(int[] thresholds, Bracket[] brackets) {
+            this.thresholds = thresholds;
+            this.brackets = brackets;
+        }
+
+        static PerBlock of(List<Source> sources) {
+            int[] thresholds = sources.stream().mapToInt(Source::level).distinct().sorted().toArray();
+            Bracket[] brackets = new Bracket[thresholds.length];
+            for (int i = 0; i < thresholds.length; i++) {
+                int level = thresholds[i];
+                brackets[i] = Bracket.of(sources.stream().filter(s -> s.level() <= level).toList());
+            }
+            return new PerBlock(thresholds, brackets);
+        }
+
+        @Nullable Bracket at(int level) {
+            int lo = 0, hi = thresholds.length; // count thresholds <= level
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (thresholds[mid] <= level) lo = mid + 1;
+                else hi = mid;
+            }
+            return (lo == 0) ? null : brackets[lo - 1];
+        }
+    }
+
+    /** Vose alias table over the treasures unlocked in one bracket. */
+    private static final class Bracket {
+        final double noWin;
+        final Treasure[] items;
+        final double[] prob;
+        final int[] alias;
+
+        private Bracket(double noWin, Treasure[] items, double[] prob, int[] alias) {
+            this.noWin = noWin;
+            this.items = items;
+            this.prob = prob;
+            this.alias = alias;
+        }
+
+        static Bracket of(List<Source> sources) {
+            List<Source> certain = sources.stream().filter(s -> s.p() >= 1.0).toList();
+            List<Source> pool = certain.isEmpty() ? sources : certain;
+
+            int n = pool.size();
+            Treasure[] items = new Treasure[n];
+            double[] weights = new double[n];
+            double sum = 0.0;
+            for (int i = 0; i < n; i++) {
+                Source s = pool.get(i);
+                items[i] = s.treasure();
+                weights[i] = certain.isEmpty() ? -Math.log1p(-s.p()) : 1.0;
+                sum += weights[i];
+            }
+
+            double noWin = certain.isEmpty() ? Math.exp(-sum) : 0.0;
+            double[] prob = new double[n];
+            int[] alias = new int[n];
+            buildAlias(weights, sum, prob, alias);
+            return new Bracket(noWin, items, prob, alias);
+        }
+
+        @Nullable Treasure roll(ThreadLocalRandom rng) {
+            if (noWin > 0.0 && rng.nextDouble() < noWin) return null;
+            int i = rng.nextInt(items.length);
+            return (rng.nextDouble() < prob[i]) ? items[i] : items[alias[i]];
+        }
+
+        private static void buildAlias(double[] weights, double sum, double[] prob, int[] alias) {
+            int n = weights.length;
+            double[] scaled = new double[n];
+            int[] small = new int[n], large = new int[n];
+            int ns = 0, nl = 0;
+
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / sum;
+                if (scaled[i] < 1.0) small[ns++] = i;
+                else large[nl++] = i;
+            }
+
+            while (ns > 0 && nl > 0) {
+                int s = small[--ns], l = large[--nl];
+                prob[s] = scaled[s];
+                alias[s] = l;
+                scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+                if (scaled[l] < 1.0) small[ns++] = l;
+                else large[nl++] = l;
+            }
+
+            // Leftovers are 1.0 up to rounding
+            while (nl > 0) prob[large[--nl]] = 1.0;
+            while (ns > 0) prob[small[--ns]] = 1.0;
+        }
+    }
+}
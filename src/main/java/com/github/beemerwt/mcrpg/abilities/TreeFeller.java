@@ -1,243 +1,352 @@
 package com.github.beemerwt.mcrpg.abilities;
 
 import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.config.ability.TreeFellerConfig;
 import com.github.beemerwt.mcrpg.managers.ConfigManager;
 import com.github.beemerwt.mcrpg.config.skills.WoodcuttingConfig;
 import com.github.beemerwt.mcrpg.persistent.PlacedBlockTracker;
 import com.github.beemerwt.mcrpg.data.SkillType;
 import com.github.beemerwt.mcrpg.util.BlockClassifier;
 import com.github.beemerwt.mcrpg.data.Leveling;
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import com.github.beemerwt.mcrpg.util.AsyncIO;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.EquipmentSlot;
+import net.minecraft.entity.ItemEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.registry.Registries;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Vec3i;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
- * McRPG Tree Feller — adaptation of mcMMO's original Tree Feller search.
+ * McRPG Tree Feller — adaptation of mcMMO's original Tree Feller.
  *
- * Algorithm:
- *  - If the block above the current center is a log: search a flat "cylinder" neighborhood
- *    (a disk of radius ~2 in X/Z) at the same Y.
- *  - Otherwise (branch/top): search the same cylinder at Y-1..Y..Y+1
- *    and also check the block directly below.
- *  - For any log found, add it to the removal set and schedule it as a new center to recurse.
- *  - For tree non-wood parts (leaves, roots, wart blocks, etc.), add to removal but don't recurse.
+ * The tree is found by {@link TreeScan}, then broken bottom-up.
  *
  * Safety:
  *  - Hard threshold on total blocks to avoid nuking forests.
- *  - Optional "ineligible" predicate so you can skip player-placed logs if you track them.
+ *  - Player-placed logs are skipped.
+ *  - Big trees fall over several ticks under a per-tick block and time budget (see {@link #start}).
  */
 public final class TreeFeller {
     private TreeFeller() {}
 
-    private static final int THRESHOLD = 1024;
-    private static final boolean INCLUDE_NON_WOOD_PARTS = true;
+    /** A tree falling over several ticks; its tool damage and XP are settled once, by {@link #settle}. */
+    private static final class Job {
+        final UUID playerId;
+        final ServerWorld world;
+        final PlacedBlockTracker placed;
+        final long[] blocks; // packed, bottom-up
+        final BlockPos.Mutable probe = new BlockPos.Mutable();
+        final int skillLevel;
+        final WoodcuttingConfig cfg; // the config the tree started falling under
+        final ItemStack tool;
+        final List<ItemStack> drops = new ArrayList<>(); // merged across the whole tree
+
+        int cursor = 0;
+        int logs = 0;
+        long xp = 0L;
+
+        Job(ServerPlayerEntity player, ServerWorld world, long[] blocks, int skillLevel, WoodcuttingConfig cfg,
+            ItemStack tool) {
+            this.playerId = player.getUuid();
+            this.world = world;
+            this.placed = PlacedBlockTracker.get(world);
+            this.blocks = blocks;
+            this.skillLevel = skillLevel;
+            this.cfg = cfg;
+            this.tool = tool;
+        }
 
-    /**
-     * Collects the tree starting at 'start' and processes each block:
-     * - precomputes drops for Double Drops
-     * - breaks the block
-     * - damages the axe on logs
-     * - awards per-block XP (doubled if Double Drops procs)
-     * Returns the total (pre-modifier) XP earned.
-     */
-    public static long fellAndProcess(ServerPlayerEntity player, BlockPos start,
-                                      int skillLevel, WoodcuttingConfig cfg) {
-        var world = player.getEntityWorld();
-        var treeBlocks = collect(world, start);
-        if (treeBlocks.isEmpty()) return 0L;
+        boolean done() { return cursor >= blocks.length; }
+    }
 
-        long totalXp = 0L;
-        var ordered = treeBlocks.stream()
-                .sorted(Comparator.comparingInt(Vec3i::getY))
-                .toList();
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
 
-        var tool = player.getMainHandStack();
+    // Server thread only
+    private static final ArrayDeque<Job> JOBS = new ArrayDeque<>();
+    private static final List<UUID> SCANNING = new ArrayList<>(); // one entry per scan in flight
 
-        for (var pos : ordered) {
-            var state = world.getBlockState(pos);
-            var block = state.getBlock();
+    private static final ExecutorService SCANNER = AsyncIO.singleThread("McRPG-TreeScan");
 
-            // Resolve XP for THIS block (skip if non-xp)
-            long xp = Leveling.resolveBlockXp(cfg.getBlocks(), block);
-            if (xp <= 0) continue;
+    public static void init() {
+        ServerTickEvents.END_SERVER_TICK.register(TreeFeller::tick);
 
-            // Build predicted drops BEFORE breaking so we can duplicate exactly
-            var predictedDrops = predictedDropsFor(state, world, pos, player, tool);
+        // Settle while the player is still here so the XP and durability land before they are saved
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> cancelFor(handler.player));
 
-            // Break (this path won't fire Fabric AFTER; that's fine for Telekinesis since we spawn dupes)
-            if (!world.breakBlock(pos, true, player)) {
-                McRPG.getLogger().warning("Tree Feller failed to break {} at {}",
-                        Registries.BLOCK.getId(block), pos);
-                continue;
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            Job job;
+            while ((job = JOBS.pollFirst()) != null) {
+                settle(job, server.getPlayerManager().getPlayer(job.playerId));
             }
+            SCANNING.clear();
+        });
+    }
 
-            // Axe durability on logs only; do not cancel the run mid-tree (let natural break happen)
-            if (BlockClassifier.isLog(block) && tool.isDamageable())
-                tool.damage(1, player, EquipmentSlot.MAINHAND);
-
-            // Double Drops per block (spawns extra copies the Telekinesis mixin can capture)
-            if (DoubleDrops.processTrigger(cfg.doubleDrops, skillLevel, world, pos, block, predictedDrops))
-                xp *= 2;
+    /**
+     * Start felling the tree at 'start'. The first slice breaks now, the rest bottom-up over the
+     * following ticks under the TreeFellerConfig budgets. Each block, as it is broken:
+     * - is re-checked (chunk loaded, still a Woodcutting block, not player-placed)
+     * - rolls Double Drops, evaluates its loot once, then breaks without vanilla drops
+     * - earns its XP (doubled if Double Drops procs)
+     * Drops, axe damage and the XP award are settled once, when the tree is done or the job is cancelled.
+     * The drops arrive merged: in the player's inventory if configured, otherwise at the stump.
+     * With asyncScan on, the search runs off-thread and the tree starts falling a tick or so later.
+     * @return false if nothing was found, the player already has the maximum number of trees falling, or the
+     *         search went off-thread; the broken log should then be treated as an ordinary chop
+     */
+    public static boolean start(ServerPlayerEntity player, BlockPos start, int skillLevel, WoodcuttingConfig cfg) {
+        TreeFellerConfig tf = cfg.treeFeller;
+        if (tf.maxTreesPerPlayer > 0 && countFor(player.getUuid()) >= tf.maxTreesPerPlayer) {
+            McRPG.getLogger().debug("{} already has {} trees falling", player.getName().getString(), tf.maxTreesPerPlayer);
+            return false;
+        }
 
-            totalXp += Math.max(0, xp);
+        var world = player.getEntityWorld();
+        if (tf.asyncScan) {
+            scanOffThread(player, world, start, skillLevel, cfg);
+            return false; // the chopped log is an ordinary chop; the rest of the tree follows the scan
         }
 
-        McRPG.getLogger().debug("Tree Feller felled {} blocks for {}",
-                ordered.size(), player.getName().getString());
-        return totalXp;
+        long[] ordered = collect(world, start);
+        if (ordered.length == 0) return false;
+
+        begin(new Job(player, world, ordered, skillLevel, cfg, player.getMainHandStack()), player);
+        return true;
     }
 
-    // ---- drops helper (predict identical to the real drop) ----
+    /**
+     * Copy the blocks around the log, search the copy on the scanner thread, then start the job back on
+     * the server thread. Breaking re-checks every block, so changes made during the scan are harmless.
+     */
+    private static void scanOffThread(ServerPlayerEntity player, ServerWorld world, BlockPos start,
+                                      int skillLevel, WoodcuttingConfig cfg) {
+        UUID id = player.getUuid();
+        ItemStack tool = player.getMainHandStack();
+        BlockPos origin = start.toImmutable();
+        TreeSnapshot snapshot = TreeSnapshot.capture(world, origin);
+        SCANNING.add(id);
+
+        CompletableFuture.supplyAsync(() -> snapshot.scan().run(origin), SCANNER)
+                .whenCompleteAsync((ordered, err) -> {
+                    SCANNING.remove(id);
+                    if (err != null) {
+                        McRPG.getLogger().error(err, "Tree Feller scan failed at {}", origin);
+                        return;
+                    }
+
+                    // Nothing has been broken or owed yet, so a player who left simply loses the tree
+                    var p = world.getServer().getPlayerManager().getPlayer(id);
+                    if (p == null || p.getEntityWorld() != world || ordered.length == 0) return;
+                    begin(new Job(p, world, ordered, skillLevel, cfg, tool), p);
+                }, world.getServer());
+    }
 
-    private static List<ItemStack> predictedDropsFor(BlockState state, ServerWorld world,
-                                                     BlockPos pos, ServerPlayerEntity player,
-                                                     ItemStack tool) {
-        try {
-            // Newer Yarn: LootContextParameterSet.Builder for BLOCK
-            var be = world.getBlockEntity(pos);
-            return Block.getDroppedStacks(state, world, pos, be, player, tool);
-        } catch (Throwable t) {
-            // If mappings differ on your version, fall back to empty → no duplicate spawn.
-            McRPG.getLogger().debug("Tree Feller: predictedDropsFor failed for {} at {}: {}",
-                    state.getBlock(), pos, t.toString());
-            return java.util.Collections.emptyList();
+    /** Break the job's first slice now and queue the rest. */
+    private static void begin(Job job, ServerPlayerEntity player) {
+        TreeFellerConfig tf = job.cfg.treeFeller;
+        if (tf.blocksPerTick <= 0) {
+            advance(job, player, job.blocks.length, NO_DEADLINE);
+        } else {
+            advance(job, player, tf.blocksPerTick, deadline(tf));
         }
+
+        if (job.done()) settle(job, player);
+        else JOBS.addLast(job);
     }
 
-    /** Collects the set of blocks Tree Feller would remove (no breaking). */
-    public static Set<BlockPos> collect(ServerWorld world, BlockPos startingPos) {
-        Set<BlockPos> out = new HashSet<>();
+    /** Advance every falling tree, round-robin, within this tick's budget. */
+    private static void tick(MinecraftServer server) {
+        if (JOBS.isEmpty()) return;
+
+        TreeFellerConfig tf = ConfigManager.<WoodcuttingConfig>getSkillConfig(SkillType.WOODCUTTING).treeFeller;
+        long deadline = deadline(tf);
 
-        // We mirror the recursive shape, but drive it iteratively to avoid deep stacks.
-        ArrayDeque<BlockPos> futureCenters = new ArrayDeque<>();
-        LongOpenHashSet seen = new LongOpenHashSet(128);
-        boolean[] reachedThreshold = new boolean[] { false }; // mutable flag
+        // Each job gets one turn at most; whoever misses out this tick goes first next tick
+        for (int turns = JOBS.size(); turns > 0 && !passed(deadline); turns--) {
+            Job job = JOBS.pollFirst();
+            var player = server.getPlayerManager().getPlayer(job.playerId);
+            if (player == null || player.getEntityWorld() != job.world) {
+                settle(job, player); // logged off or changed dimension
+                continue;
+            }
 
-        // Kick off the first center as the starting block (mcMMO starts at the first broken block)
-        processTree(startingPos, world, out, futureCenters, seen, reachedThreshold);
+            int maxBlocks = (tf.blocksPerTick > 0) ? tf.blocksPerTick : job.blocks.length;
+            advance(job, player, maxBlocks, deadline);
+
+            if (job.done()) settle(job, player);
+            else JOBS.addLast(job);
+        }
+    }
 
-        while (!futureCenters.isEmpty() && !reachedThreshold[0]) {
-            BlockPos center = futureCenters.removeFirst();
-            processTree(center, world, out, futureCenters, seen, reachedThreshold);
+    /** Break up to maxBlocks of the job's blocks, stopping early once the deadline passes. */
+    private static void advance(Job job, ServerPlayerEntity player, int maxBlocks, long deadline) {
+        int end = Math.min(job.blocks.length, job.cursor + maxBlocks);
+        while (job.cursor < end) {
+            breakOne(job, player, job.blocks[job.cursor++]);
+            if (passed(deadline)) return;
         }
-        return out;
     }
 
-    // ---------------- core search (ported from mcMMO) ----------------
+    private static void breakOne(Job job, ServerPlayerEntity player, long packed) {
+        var world = job.world;
+        var probe = job.probe.set(packed);
+        if (!world.isChunkLoaded(ChunkSectionPos.getSectionCoord(probe.getX()), ChunkSectionPos.getSectionCoord(probe.getZ())))
+            return;
 
-    private static void processTree(BlockPos center,
-                                    ServerWorld world,
-                                    Set<BlockPos> treeFellerBlocks,
-                                    ArrayDeque<BlockPos> futureCenters,
-                                    LongOpenHashSet seen,
-                                    boolean[] reachedThreshold) {
+        // The tree may have changed since it was collected
+        var state = world.getBlockState(probe);
+        var block = state.getBlock();
+        long xp = ConfigManager.getBlockXp(SkillType.WOODCUTTING, block);
+        if (xp <= 0) return;
+        if (job.placed.isMarked(packed)) return;
 
-        // If there is a log above: trunk mode (flat cylinder at same Y)
-        boolean trunk = processTarget(center.up(), world, futureCenters, treeFellerBlocks, seen, reachedThreshold);
+        // Breaking hands the position to loot, entities and neighbour updates, so it must not be shared
+        var pos = probe.toImmutable();
 
-        if (trunk) {
-            for (int[] d : DIRECTIONS_CYLINDER_R2_NO_CORNERS) {
-                if (reachedThreshold[0]) return;
-                BlockPos pos = center.add(d[0], 0, d[1]);
-                processTarget(pos, world, futureCenters, treeFellerBlocks, seen, reachedThreshold);
-            }
+        // Roll first: the loot is evaluated once either way, and only doubled in our own list
+        boolean doubled = DoubleDrops.roll(job.cfg.doubleDrops, job.skillLevel);
+        var drops = dropsFor(state, world, pos, player, job.tool);
+
+        // Break without vanilla drops; the felling's drops are merged and delivered when it settles
+        if (!world.breakBlock(pos, false, player)) {
+            McRPG.getLogger().warning("Tree Feller failed to break {} at {}",
+                    Registries.BLOCK.getId(block), pos);
             return;
         }
+        state.onStacksDropped(world, pos, job.tool, true); // XP orbs and the like, as a normal drop would
 
-        // Branch/top mode:
-        // Cover DOWN (explicit)
-        if (!reachedThreshold[0]) {
-            processTarget(center.down(), world, futureCenters, treeFellerBlocks, seen, reachedThreshold);
+        for (ItemStack stack : drops) {
+            if (doubled) merge(job.drops, stack.copy());
+            merge(job.drops, stack);
         }
 
-        // Search a cube: cylinder at Y-1, Y, Y+1
-        for (int dy = -1; dy <= 1 && !reachedThreshold[0]; dy++) {
-            for (int[] d : DIRECTIONS_CYLINDER_R2_NO_CORNERS) {
-                if (reachedThreshold[0]) return;
-                BlockPos pos = center.add(d[0], dy, d[1]);
-                processTarget(pos, world, futureCenters, treeFellerBlocks, seen, reachedThreshold);
-            }
+        // Axe durability is owed on logs only and charged when the job settles
+        if (BlockClassifier.isLog(block)) job.logs++;
+        if (doubled) xp *= 2;
+
+        job.xp += xp;
+    }
+
+    /** Add a stack to a list of merged stacks, topping up equal stacks before starting a new one. */
+    private static void merge(List<ItemStack> into, ItemStack stack) {
+        for (ItemStack s : into) {
+            if (stack.isEmpty()) return;
+            if (!ItemStack.areItemsAndComponentsEqual(s, stack)) continue;
+
+            int moved = Math.min(stack.getCount(), s.getMaxCount() - s.getCount());
+            s.increment(moved);
+            stack.decrement(moved);
         }
+        if (!stack.isEmpty()) into.add(stack);
     }
 
-    /**
-     * Try to add a block to the removal set and, if it's a log, also enqueue it as a future center.
-     * @return true iff the given block is a log not already present.
-     */
-    private static boolean processTarget(BlockPos pos,
-                                         ServerWorld world,
-                                         ArrayDeque<BlockPos> futureCenters,
-                                         Set<BlockPos> treeFellerBlocks,
-                                         LongOpenHashSet seen,
-                                         boolean[] reachedThreshold) {
+    /** Hand the merged drops to the player, or drop them at the stump; whatever doesn't fit drops too. */
+    private static void deliverDrops(Job job, @Nullable ServerPlayerEntity player) {
+        if (job.drops.isEmpty()) return;
 
-        long key = BlockPos.asLong(pos.getX(), pos.getY(), pos.getZ());
-        if (seen.contains(key)) return false;
+        boolean toInventory = player != null && player.isAlive() && job.cfg.treeFeller.dropsToInventory;
+        BlockPos stump = BlockPos.fromLong(job.blocks[0]);
+        double x = stump.getX() + 0.5, y = stump.getY() + 0.5, z = stump.getZ() + 0.5;
 
-        if (PlacedBlockTracker.get(world).isMarked(pos)) return false;
+        int spawned = 0;
+        for (ItemStack stack : job.drops) {
+            if (toInventory) player.getInventory().insertStack(stack);
+            if (stack.isEmpty()) continue;
 
-        // Threshold check BEFORE expanding through leaves
-        if (treeFellerBlocks.size() > THRESHOLD) {
-            reachedThreshold[0] = true;
-            return false;
+            var entity = new ItemEntity(job.world, x, y, z, stack);
+            entity.setToDefaultPickupDelay();
+            job.world.spawnEntity(entity);
+            spawned++;
         }
 
-        BlockState state = world.getBlockState(pos);
+        McRPG.getLogger().debug("Tree Feller delivered {} merged stacks, {} dropped at {}",
+                job.drops.size(), spawned, stump);
+        job.drops.clear();
+    }
 
-        if (isLog(state)) {
-            seen.add(key);
-            treeFellerBlocks.add(pos.toImmutable());
-            futureCenters.addLast(pos.toImmutable());
-            return true;
+    /** Deliver the drops, charge the axe and award the XP for everything the job broke. Runs exactly once per job. */
+    private static void settle(Job job, @Nullable ServerPlayerEntity player) {
+        deliverDrops(job, player);
+        if (player == null) {
+            McRPG.getLogger().debug("Tree Feller job for {} dropped; player is gone", job.playerId);
+            return;
         }
 
-        if (INCLUDE_NON_WOOD_PARTS && isTreeNonWood(state)) {
-            seen.add(key);
-            treeFellerBlocks.add(pos.toImmutable());
-            return false;
+        // Do not cancel the run mid-tree; the axe may break here, as it would have on the last log
+        if (job.logs > 0 && !job.tool.isEmpty() && job.tool.isDamageable())
+            job.tool.damage(job.logs, player, EquipmentSlot.MAINHAND);
+
+        long awarded = Math.max(0L, Math.round(job.xp * job.cfg.xpModifier));
+        if (awarded > 0) Leveling.addXp(player, SkillType.WOODCUTTING, awarded);
+
+        McRPG.getLogger().debug("Tree Feller felled {} of {} blocks for {} ({} XP)",
+                job.cursor, job.blocks.length, player.getName().getString(), awarded);
+    }
+
+    private static void cancelFor(ServerPlayerEntity player) {
+        UUID id = player.getUuid();
+        for (var it = JOBS.iterator(); it.hasNext(); ) {
+            Job job = it.next();
+            if (!job.playerId.equals(id)) continue;
+            it.remove();
+            settle(job, player);
         }
+    }
 
-        return false;
+    private static int countFor(UUID playerId) {
+        int n = 0;
+        for (UUID id : SCANNING) if (id.equals(playerId)) n++;
+        for (Job job : JOBS) if (job.playerId.equals(playerId)) n++;
+        return n;
     }
 
-    private static boolean isLog(BlockState s) {
-        WoodcuttingConfig cfg = ConfigManager.getSkillConfig(SkillType.WOODCUTTING);
-        var blockName = Registries.BLOCK.getId(s.getBlock()).toString();
-        return cfg.getBlocks().containsKey(blockName);
+    private static long deadline(TreeFellerConfig tf) {
+        if (tf.maxMillisPerTick <= 0) return NO_DEADLINE;
+        return System.nanoTime() + (long) (tf.maxMillisPerTick * 1_000_000.0);
     }
 
-    private static boolean isTreeNonWood(BlockState s) {
-        // Check tag for leaves, roots, wart blocks, etc.
-        return BlockClassifier.isLeaf(s.getBlock())
-                || BlockClassifier.isWartBlock(s.getBlock())
-                || BlockClassifier.isRoots(s.getBlock());
+    private static boolean passed(long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
     }
 
-    // -----------------------------------------------------------------
-    // Neighborhood: cylinder of radius ~2 in X/Z, excluding center (0,0) and the 4 corners (±2,±2).
-    // Matches mcMMO behavior closely; built once and reused.
-    private static final int[][] DIRECTIONS_CYLINDER_R2_NO_CORNERS = buildDirections();
+    // ---- drops helper (identical to the real drop) ----
 
-    private static int[][] buildDirections() {
-        List<int[]> dirs = new ArrayList<>(24);
-        for (int dx = -2; dx <= 2; dx++) {
-            for (int dz = -2; dz <= 2; dz++) {
-                if (dx == 0 && dz == 0) continue;                 // omit center
-                if (Math.abs(dx) == 2 && Math.abs(dz) == 2) continue; // omit corners
-                // Keep a roundish cylinder: accept cells with Euclidean radius <= 2.25
-                double r2 = dx * dx + dz * dz;
-                if (r2 <= 5.0625) dirs.add(new int[]{dx, dz});
-            }
+    private static List<ItemStack> dropsFor(BlockState state, ServerWorld world,
+                                                     BlockPos pos, ServerPlayerEntity player,
+                                                     ItemStack tool) {
+        try {
+            // Newer Yarn: LootContextParameterSet.Builder for BLOCK
+            var be = world.getBlockEntity(pos);
+            return Block.getDroppedStacks(state, world, pos, be, player, tool);
+        } catch (Throwable t) {
+            // If mappings differ on your version, fall back to empty → the block drops nothing.
+            McRPG.getLogger().debug("Tree Feller: dropsFor failed for {} at {}: {}",
+                    state.getBlock(), pos, t.toString());
+            return java.util.Collections.emptyList();
         }
-        return dirs.toArray(new int[0][]);
+    }
+
+    /**
+     * Collects the blocks Tree Feller would remove (no breaking), packed with {@link BlockPos#asLong},
+     * ordered bottom-up. See {@link TreeScan} for the search.
+     */
+    public static long[] collect(ServerWorld world, BlockPos startingPos) {
+        return TreeScan.live(world).run(startingPos);
     }
 }
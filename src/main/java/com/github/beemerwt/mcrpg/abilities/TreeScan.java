@@ -0,0 +1,255 @@
+package com.github.beemerwt.mcrpg.abilities;
+
+import com.github.beemerwt.mcrpg.data.SkillType;
+import com.github.beemerwt.mcrpg.managers.ConfigManager;
+import com.github.beemerwt.mcrpg.persistent.PlacedBlockTracker;
+import com.github.beemerwt.mcrpg.util.BlockClassifier;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.Registries;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * One run of the Tree Feller search (adapted from mcMMO), over packed long positions.
+ * - If the block above the current center is a log: search a flat "cylinder" neighborhood
+ *   (a disk of radius ~2 in X/Z) at the same Y.
+ * - Otherwise (branch/top): search the same cylinder at Y-1..Y..Y+1 and the block directly below.
+ * - Logs are added and become new centers; leaves, roots and wart blocks are added but not expanded.
+ * - Player-placed blocks are never part of a tree.
+ * Block states are read straight from chunk section containers, keeping the last section touched;
+ * missing sections read as air. Each block kind is classified once per run, by raw id.
+ * {@link #live} reads the world and is server thread only. A scan over a {@link TreeSnapshot}
+ * touches no live state and can run on any thread.
+ */
+final class TreeScan {
+    static final int THRESHOLD = 1024;
+    private static final boolean INCLUDE_NON_WOOD_PARTS = true;
+
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+    private static final byte UNKNOWN = 0, NONE = 1, LOG = 2, PART = 3;
+
+    /** Where a scan reads blocks: one chunk section's states, or null to read it as air. */
+    interface Sections {
+        @Nullable PalettedContainer<BlockState> get(int chunkX, int sectionY, int chunkZ);
+    }
+
+    private final Sections sections;
+    private final LongPredicate placed;
+
+    private final LongOpenHashSet seen = new LongOpenHashSet(256);
+    private final LongArrayList found = new LongArrayList(128);
+    private final LongArrayFIFOQueue centers = new LongArrayFIFOQueue();
+    private boolean reachedThreshold = false;
+
+    // Classification by block raw id, filled in as blocks are met
+    private final byte[] kinds = new byte[Registries.BLOCK.size()];
+    private BlockState lastState = null;
+    private byte lastKind = UNKNOWN;
+
+    // Last section read
+    private int chunkX = Integer.MIN_VALUE, chunkZ = Integer.MIN_VALUE, sectionY = Integer.MIN_VALUE;
+    private @Nullable PalettedContainer<BlockState> section = null;
+
+    TreeScan(Sections sections, LongPredicate placed) {
+        this.sections = sections;
+        this.placed = placed;
+    }
+
+    /** A scan over the live world; never loads chunks, unloaded ones read as air. */
+    static TreeScan live(ServerWorld world) {
+        PlacedBlockTracker tracker = PlacedBlockTracker.get(world);
+        var chunks = world.getChunkManager();
+
+        Sections sections = new Sections() {
+            private int cx = Integer.MIN_VALUE, cz = Integer.MIN_VALUE;
+            private @Nullable WorldChunk chunk = null;
+
+            @Override
+            public @Nullable PalettedContainer<BlockState> get(int chunkX, int sectionY, int chunkZ) {
+                if (chunkX != cx || chunkZ != cz) {
+                    cx = chunkX;
+                    cz = chunkZ;
+                    chunk = chunks.getWorldChunk(chunkX, chunkZ); // null if not loaded
+                }
+                return sectionOf(chunk, sectionY);
+            }
+        };
+        return new TreeScan(sections, tracker::isMarked);
+    }
+
+    /** The block states of a chunk's section, or null if it is missing, out of range or all air. */
+    static @Nullable PalettedContainer<BlockState> sectionOf(@Nullable WorldChunk chunk, int sectionY) {
+        if (chunk == null) return null;
+        int i = chunk.sectionCoordToIndex(sectionY);
+        if (i < 0 || i >= chunk.getSectionArray().length) return null;
+        ChunkSection s = chunk.getSection(i);
+        return s.isEmpty() ? null : s.getBlockStateContainer();
+    }
+
+    /** Search from 'start'; returns the tree's packed positions ordered bottom-up. */
+    long[] run(BlockPos start) {
+        // Kick off the first center as the starting block (mcMMO starts at the first broken block)
+        processTree(start.getX(), start.getY(), start.getZ());
+
+        while (!centers.isEmpty() && !reachedThreshold) {
+            long c = centers.dequeueLong();
+            processTree(BlockPos.unpackLongX(c), BlockPos.unpackLongY(c), BlockPos.unpackLongZ(c));
+        }
+        return bottomUp();
+    }
+
+    private void processTree(int x, int y, int z) {
+        // If there is a log above: trunk mode (flat cylinder at same Y)
+        if (processTarget(x, y + 1, z)) {
+            for (int i = 0; i < CYLINDER_DX.length && !reachedThreshold; i++) {
+                processTarget(x + CYLINDER_DX[i], y, z + CYLINDER_DZ[i]);
+            }
+            return;
+        }
+
+        // Branch/top mode: DOWN, then the cylinder at Y-1, Y, Y+1
+        processTarget(x, y - 1, z);
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int i = 0; i < CYLINDER_DX.length && !reachedThreshold; i++) {
+                processTarget(x + CYLINDER_DX[i], y + dy, z + CYLINDER_DZ[i]);
+            }
+        }
+    }
+
+    /**
+     * Add a block to the tree and, if it's a log, enqueue it as a future center.
+     * A position's answer can't change during a run, so every probe is remembered, hits or not.
+     * @return true iff the block is a log met for the first time
+     */
+    private boolean processTarget(int x, int y, int z) {
+        if (reachedThreshold) return false;
+
+        long key = BlockPos.asLong(x, y, z);
+        if (!seen.add(key)) return false;
+
+        // Threshold check BEFORE expanding through leaves
+        if (found.size() > THRESHOLD) {
+            reachedThreshold = true;
+            return false;
+        }
+
+        byte kind = kindOf(stateAt(x, y, z));
+        if (kind == NONE || placed.test(key)) return false;
+
+        if (kind == LOG) {
+            found.add(key);
+            centers.enqueue(key);
+            return true;
+        }
+
+        if (INCLUDE_NON_WOOD_PARTS) found.add(key);
+        return false;
+    }
+
+    // ---------- Block access ----------
+
+    private BlockState stateAt(int x, int y, int z) {
+        int cx = x >> 4, sy = y >> 4, cz = z >> 4;
+        if (cx != chunkX || sy != sectionY || cz != chunkZ) {
+            chunkX = cx;
+            sectionY = sy;
+            chunkZ = cz;
+            section = sections.get(cx, sy, cz);
+        }
+        return (section != null) ? section.get(x & 15, y & 15, z & 15) : AIR;
+    }
+
+    private byte kindOf(BlockState state) {
+        if (state == lastState) return lastKind; // neighbours are mostly the same block
+
+        Block block = state.getBlock();
+        int raw = Registries.BLOCK.getRawId(block);
+        byte kind;
+        if (raw >= 0 && raw < kinds.length) {
+            kind = kinds[raw];
+            if (kind == UNKNOWN) kinds[raw] = kind = classify(block);
+        } else {
+            kind = classify(block);
+        }
+
+        lastState = state;
+        lastKind = kind;
+        return kind;
+    }
+
+    /** Whether a scan could include this block: a Woodcutting log, leaf, root or wart block. */
+    static boolean isTreeBlock(BlockState state) {
+        return classify(state.getBlock()) != NONE;
+    }
+
+    private static byte classify(Block block) {
+        if (ConfigManager.getBlockXp(SkillType.WOODCUTTING, block) > 0) return LOG;
+        if (BlockClassifier.isLeaf(block) || BlockClassifier.isWartBlock(block) || BlockClassifier.isRoots(block))
+            return PART;
+        return NONE;
+    }
+
+    // ---------- Ordering ----------
+
+    /** Counting sort by Y; discovery order is kept within a layer. */
+    private long[] bottomUp() {
+        int n = found.size();
+        if (n == 0) return new long[0];
+
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int y = BlockPos.unpackLongY(found.getLong(i));
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+        }
+
+        int[] next = new int[maxY - minY + 2];
+        for (int i = 0; i < n; i++) next[BlockPos.unpackLongY(found.getLong(i)) - minY + 1]++;
+        for (int i = 1; i < next.length; i++) next[i] += next[i - 1];
+
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) {
+            long p = found.getLong(i);
+            out[next[BlockPos.unpackLongY(p) - minY]++] = p;
+        }
+        return out;
+    }
+
+    // -----------------------------------------------------------------
+    // Neighborhood: cylinder of radius ~2 in X/Z, excluding center (0,0) and the 4 corners (±2,±2).
+    // Matches mcMMO behavior closely; built once and reused.
+    private static final int[] CYLINDER_DX, CYLINDER_DZ;
+
+    static {
+        List<int[]> dirs = new ArrayList<>(24);
+        for (int dx = -2; dx <= 2; dx++) {
+            for (int dz = -2; dz <= 2; dz++) {
+                if (dx == 0 && dz == 0) continue;                 // omit center
+                if (Math.abs(dx) == 2 && Math.abs(dz) == 2) continue; // omit corners
+                // Keep a roundish cylinder: accept cells with Euclidean radius <= 2.25
+                double r2 = dx * dx + dz * dz;
+                if (r2 <= 5.0625) dirs.add(new int[]{dx, dz});
+            }
+        }
+
+        CYLINDER_DX = new int[dirs.size()];
+        CYLINDER_DZ = new int[dirs.size()];
+        for (int i = 0; i < dirs.size(); i++) {
+            CYLINDER_DX[i] = dirs.get(i)[0];
+            CYLINDER_DZ[i] = dirs.get(i)[1];
+        }
+    }
+}
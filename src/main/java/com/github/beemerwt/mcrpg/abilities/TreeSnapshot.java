@@ -0,0 +1,97 @@
+package com.github.beemerwt.mcrpg.abilities;
+
+import com.github.beemerwt.mcrpg.persistent.PlacedBlockTracker;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Private copies of the block states around a chopped log, for a {@link TreeScan} off the server thread.
+ * - Covers the 3x3 chunks around the log, from one section below it to SECTIONS_ABOVE sections above.
+ * - Only sections the scan can reach are copied: ones whose palette holds a tree block, in the
+ *   unbroken run of such layers around the log.
+ * - Anything outside that window, or in a chunk that wasn't loaded, reads as air.
+ * - The player-placed positions of the 9 chunks are copied too.
+ * Capture on the server thread; after that nothing here is shared, so the scan can run anywhere.
+ * The world keeps changing meanwhile, so whatever the scan returns must be re-checked before breaking.
+ */
+final class TreeSnapshot implements TreeScan.Sections {
+    private static final int SECTIONS_BELOW = 1;
+    private static final int SECTIONS_ABOVE = 4;
+
+    private final int minChunkX, minChunkZ, minSectionY, height;
+    private final PalettedContainer<BlockState>[] sections; // [(dx * 3 + dz) * height + (sy - minSectionY)]
+    private final LongOpenHashSet placed;
+
+    private TreeSnapshot(int minChunkX, int minChunkZ, int minSectionY, int height,
+                         PalettedContainer<BlockState>[] sections, LongOpenHashSet placed) {
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.minSectionY = minSectionY;
+        this.height = height;
+        this.sections = sections;
+        this.placed = placed;
+    }
+
+    /** Copy the window around 'center'. Server thread only. */
+    static TreeSnapshot capture(ServerWorld world, BlockPos center) {
+        int minChunkX = (center.getX() >> 4) - 1;
+        int minChunkZ = (center.getZ() >> 4) - 1;
+        int minSectionY = (center.getY() >> 4) - SECTIONS_BELOW;
+        int height = SECTIONS_BELOW + 1 + SECTIONS_ABOVE;
+
+        var chunkManager = world.getChunkManager();
+        WorldChunk[] chunks = new WorldChunk[9];
+        for (int i = 0; i < 9; i++) {
+            chunks[i] = chunkManager.getWorldChunk(minChunkX + i / 3, minChunkZ + i % 3); // null if not loaded
+        }
+
+        // Walk out from the log's layer; a layer with no tree blocks in any chunk ends the tree that way
+        @SuppressWarnings("unchecked")
+        PalettedContainer<BlockState>[] sections = new PalettedContainer[9 * height];
+        int up = SECTIONS_BELOW;
+        while (up < height && copyLayer(chunks, minSectionY, height, up, sections)) up++;
+        int down = SECTIONS_BELOW - 1;
+        while (down >= 0 && copyLayer(chunks, minSectionY, height, down, sections)) down--;
+
+        PlacedBlockTracker tracker = PlacedBlockTracker.get(world);
+        LongOpenHashSet placed = new LongOpenHashSet();
+        for (int i = 0; i < 9; i++) tracker.copyChunk(minChunkX + i / 3, minChunkZ + i % 3, placed);
+
+        return new TreeSnapshot(minChunkX, minChunkZ, minSectionY, height, sections, placed);
+    }
+
+    /**
+     * Copy the sections of one layer whose palette holds a tree block; the rest read as air, which the
+     * scan can't tell apart from any other non-tree block.
+     * @return true if anything was copied
+     */
+    private static boolean copyLayer(WorldChunk[] chunks, int minSectionY, int height, int layer,
+                                     PalettedContainer<BlockState>[] into) {
+        boolean any = false;
+        for (int i = 0; i < 9; i++) {
+            var live = TreeScan.sectionOf(chunks[i], minSectionY + layer);
+            if (live == null || !live.hasAny(TreeScan::isTreeBlock)) continue;
+
+            into[i * height + layer] = live.copy();
+            any = true;
+        }
+        return any;
+    }
+
+    /** A scan over this snapshot; safe on any thread, one scan at a time. */
+    TreeScan scan() {
+        return new TreeScan(this, placed::contains);
+    }
+
+    @Override
+    public @Nullable PalettedContainer<BlockState> get(int chunkX, int sectionY, int chunkZ) {
+        int dx = chunkX - minChunkX, dz = chunkZ - minChunkZ, i = sectionY - minSectionY;
+        if (dx < 0 || dx > 2 || dz < 0 || dz > 2 || i < 0 || i >= height) return null;
+        return sections[(dx * 3 + dz) * height + i];
+    }
+}
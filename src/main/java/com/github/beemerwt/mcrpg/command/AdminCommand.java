@@ -4,6 +4,7 @@ import com.github.beemerwt.mcrpg.McRPG;
 import com.github.beemerwt.mcrpg.command.suggest.PlayerSuggester;
 import com.github.beemerwt.mcrpg.command.suggest.SkillSuggester;
 import com.github.beemerwt.mcrpg.data.Leveling;
+import com.github.beemerwt.mcrpg.data.McMMOImporter;
 import com.github.beemerwt.mcrpg.data.SkillType;
 import com.github.beemerwt.mcrpg.managers.AbilityManager;
 import com.github.beemerwt.mcrpg.managers.ConfigManager;
@@ -20,7 +21,11 @@ import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static com.github.beemerwt.mcrpg.util.CommandUtils.*;
 import static net.minecraft.server.command.CommandManager.argument;
@@ -33,6 +38,11 @@ public final class AdminCommand {
         return builder.buildFuture();
     };
 
+    private static final SuggestionProvider<ServerCommandSource> PREFIX_SUGGESTIONS = (context, builder) -> {
+        builder.suggest("mcmmo_", Text.literal("mcMMO's default table prefix"));
+        return builder.buildFuture();
+    };
+
     private AdminCommand() {}
 
     public static void register(CommandDispatcher<ServerCommandSource> d) {
@@ -55,7 +65,7 @@ public final class AdminCommand {
                 .executes(ctx -> safe(ctx, () -> {
                     try {
                         reload(ctx);
-                        return ok(ctx, "McRPG reloaded.", true);
+                        return ok(ctx, "Reloading McRPG configs...", false);
                     } catch (Exception e) {
                         return fail(ctx, "Reload failed: " + e.getMessage());
                     }
@@ -90,6 +100,19 @@ public final class AdminCommand {
                 .then(argument("skill", StringArgumentType.word()).suggests(SkillSuggester.INSTANCE)
                 .then(argument("amount", LongArgumentType.longArg(1))
                 .executes(AdminCommand::execSubXp)))))
+
+            .then(literal("import")
+                .then(literal("flatfile")
+                    .then(argument("path", StringArgumentType.greedyString())
+                    .executes(AdminCommand::execImportFlatfile)))
+                .then(literal("sql")
+                    .then(argument("prefix", StringArgumentType.word()).suggests(PREFIX_SUGGESTIONS)
+                    .then(argument("url", StringArgumentType.greedyString())
+                    .executes(AdminCommand::execImportSql))))
+                .then(literal("cancel")
+                    .executes(ctx -> McMMOImporter.cancel()
+                        ? ok(ctx, "Import will stop after the current batch.", false)
+                        : fail(ctx, "No import is running."))))
         );
     }
 
@@ -170,16 +193,63 @@ public final class AdminCommand {
         });
     }
 
+    private static int execImportFlatfile(CommandContext<ServerCommandSource> ctx) {
+        return safe(ctx, () -> {
+            String raw = StringArgumentType.getString(ctx, "path");
+            Path file;
+            try {
+                file = Path.of(raw); // relative to the server directory
+            } catch (InvalidPathException e) {
+                return fail(ctx, "Invalid path: " + raw);
+            }
+            if (!Files.isRegularFile(file)) return fail(ctx, "File not found: " + raw);
+
+            if (!McMMOImporter.startFlatfile(McRPG.getStore(), file, progressTo(ctx)))
+                return fail(ctx, "An import is already running.");
+            return ok(ctx, "Importing mcMMO players from " + file.getFileName() + "...", true);
+        });
+    }
+
+    private static int execImportSql(CommandContext<ServerCommandSource> ctx) {
+        return safe(ctx, () -> {
+            String prefix = StringArgumentType.getString(ctx, "prefix");
+            String url = StringArgumentType.getString(ctx, "url");
+            if (!prefix.matches("[A-Za-z0-9_]*")) return fail(ctx, "Invalid table prefix: " + prefix);
+            if (!url.startsWith("jdbc:")) return fail(ctx, "Expected a JDBC URL, e.g. jdbc:mysql://host/db?user=u&password=p");
+
+            if (!McMMOImporter.startSql(McRPG.getStore(), url, prefix, progressTo(ctx)))
+                return fail(ctx, "An import is already running.");
+            return ok(ctx, "Importing mcMMO players from the " + prefix + "* tables...", true);
+        });
+    }
+
     // ---------------- helpers ----------------
 
+    /** Import progress goes to whoever started it, on the server thread. */
+    private static Consumer<String> progressTo(CommandContext<ServerCommandSource> ctx) {
+        var source = ctx.getSource();
+        return msg -> {
+            McRPG.getLogger().info("[import] {}", msg);
+            source.getServer().execute(() ->
+                source.sendFeedback(() -> Text.literal(msg).formatted(Formatting.GRAY), false));
+        };
+    }
+
+    /** Configs load off-thread; the result is reported back on the server thread once the swap happened. */
     public static void reload(CommandContext<ServerCommandSource> ctx) {
+        var source = ctx.getSource();
         long start = System.nanoTime();
-        try {
-            ConfigManager.reloadAll();
+
+        ConfigManager.reloadAll().whenComplete((v, ex) -> source.getServer().execute(() -> {
+            if (ex != null) {
+                Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+                McRPG.getLogger().error(cause, "Config reload failed");
+                source.sendError(Text.literal("Reload failed: " + cause.getMessage()));
+                return;
+            }
+
             long ms = (System.nanoTime() - start) / 1_000_000L;
-            ctx.getSource().sendFeedback(() -> Text.literal("McRPG configs reloaded (" + ms + " ms)."), true);
-        } catch (Exception ex) {
-            ctx.getSource().sendError(Text.literal("Reload failed: " + ex.getMessage()));
-        }
+            source.sendFeedback(() -> Text.literal("McRPG configs reloaded (" + ms + " ms)."), true);
+        }));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.github.beemerwt.mcrpg.command;
+
+import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.command.suggest.PlayerSuggester;
+import com.github.beemerwt.mcrpg.data.Leveling;
+import com.github.beemerwt.mcrpg.data.PlayerData;
+import com.github.beemerwt.mcrpg.data.SkillLinks;
+import com.github.beemerwt.mcrpg.data.SkillType;
+import com.github.beemerwt.mcrpg.managers.ConfigManager;
+import com.github.beemerwt.mcrpg.managers.LeaderboardManager;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.github.beemerwt.mcrpg.util.CommandUtils.fail;
+import static com.github.beemerwt.mcrpg.util.CommandUtils.safe;
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+
+public final class LeaderboardCommand {
+    private static final int PAGE_SIZE = 10;
+    private static final String POWER = "power";
+
+    private static final SuggestionProvider<ServerCommandSource> BOARD_SUGGESTIONS = (context, builder) -> {
+        builder.suggest(POWER);
+        for (SkillType s : SkillType.values()) {
+            if (!SkillLinks.isAlias(s)) builder.suggest(s.name().toLowerCase(Locale.ROOT));
+        }
+        return builder.buildFuture();
+    };
+
+    private LeaderboardCommand() {}
+
+    public static void register(CommandDispatcher<ServerCommandSource> d) {
+        d.register(literal("mctop")
+            .executes(ctx -> execTop(ctx, POWER, 1))
+            .then(argument("skill", StringArgumentType.word()).suggests(BOARD_SUGGESTIONS)
+                .executes(ctx -> execTop(ctx, StringArgumentType.getString(ctx, "skill"), 1))
+                .then(argument("page", IntegerArgumentType.integer(1))
+                    .executes(ctx -> execTop(ctx, StringArgumentType.getString(ctx, "skill"),
+                        IntegerArgumentType.getInteger(ctx, "page")))))
+        );
+
+        d.register(literal("mcrank")
+            .executes(LeaderboardCommand::execRankSelf)
+            .then(argument("player", StringArgumentType.word()).suggests(PlayerSuggester.DATABASE)
+                .executes(LeaderboardCommand::execRankOther))
+        );
+    }
+
+    // ---------------- executes ----------------
+
+    private static int execTop(CommandContext<ServerCommandSource> ctx, String raw, int page) {
+        return safe(ctx, () -> {
+            if (!LeaderboardManager.isReady()) return fail(ctx, "Leaderboards are still loading, try again shortly.");
+
+            SkillType skill = null;
+            if (!POWER.equalsIgnoreCase(raw)) {
+                Optional<SkillType> optSkill = SkillType.parseSkill(raw);
+                if (optSkill.isEmpty()) return fail(ctx, "Invalid skill: " + raw);
+                skill = optSkill.get();
+            }
+
+            int total = LeaderboardManager.size(skill);
+            int pages = Math.max(1, (int) Math.ceil(total / (double) PAGE_SIZE));
+            int safePage = Math.min(page, pages);
+
+            final String title = boardName(skill);
+            ctx.getSource().sendFeedback(() ->
+                Text.literal("--- Top " + title + " (" + safePage + "/" + pages + ") ---").formatted(Formatting.GOLD), false);
+
+            var rows = LeaderboardManager.top(skill, (safePage - 1) * PAGE_SIZE, PAGE_SIZE);
+            if (rows.isEmpty()) {
+                ctx.getSource().sendFeedback(() -> Text.literal("Nobody is ranked yet.").formatted(Formatting.GRAY), false);
+                return Command.SINGLE_SUCCESS;
+            }
+
+            for (var row : rows) {
+                var line = Text.literal(row.rank() + ". ").formatted(Formatting.YELLOW)
+                    .append(Text.literal(row.name()).formatted(Formatting.WHITE))
+                    .append(scoreText(skill, row.score()));
+                ctx.getSource().sendFeedback(() -> line, false);
+            }
+            return Command.SINGLE_SUCCESS;
+        });
+    }
+
+    private static int execRankSelf(CommandContext<ServerCommandSource> ctx) {
+        return safe(ctx, () -> {
+            var self = ctx.getSource().getPlayer();
+            if (self == null) return fail(ctx, "Cannot be run from console.");
+            return renderRanks(ctx, McRPG.getStore().get(self));
+        });
+    }
+
+    private static int execRankOther(CommandContext<ServerCommandSource> ctx) {
+        return safe(ctx, () -> {
+            String name = StringArgumentType.getString(ctx, "player");
+            var player = McRPG.getStore().lookup(name);
+            if (player.isEmpty()) return fail(ctx, "Player not found: " + name);
+            return renderRanks(ctx, player.get());
+        });
+    }
+
+    // -------------- presentation --------------
+
+    private static int renderRanks(CommandContext<ServerCommandSource> ctx, PlayerData pd) {
+        if (!LeaderboardManager.isReady()) return fail(ctx, "Leaderboards are still loading, try again shortly.");
+
+        ctx.getSource().sendFeedback(() ->
+            Text.literal("Rankings for " + pd.getName()).formatted(Formatting.GOLD), false);
+
+        sendRankLine(ctx, null, pd);
+        for (SkillType s : SkillType.values()) {
+            if (!SkillLinks.isAlias(s)) sendRankLine(ctx, s, pd);
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static void sendRankLine(CommandContext<ServerCommandSource> ctx, @Nullable SkillType skill, PlayerData pd) {
+        var row = LeaderboardManager.rankOf(skill, pd.id);
+        MutableText line = Text.literal(" - " + boardName(skill) + ": ");
+        if (row == null) {
+            line = line.append(Text.literal("Unranked").formatted(Formatting.GRAY));
+        } else {
+            line = line.append(Text.literal("#" + row.rank()).formatted(Formatting.GREEN))
+                .append(Text.literal(" of " + LeaderboardManager.size(skill)).formatted(Formatting.GRAY))
+                .append(scoreText(skill, row.score()));
+        }
+
+        final var out = line;
+        ctx.getSource().sendFeedback(() -> out, false);
+    }
+
+    private static String boardName(@Nullable SkillType skill) {
+        return (skill == null) ? "Power Level" : SkillLinks.primaryOf(skill).getName();
+    }
+
+    private static MutableText scoreText(@Nullable SkillType skill, long score) {
+        if (LeaderboardManager.ranksByLevel(skill))
+            return Text.literal("  Lv " + score).formatted(Formatting.GREEN);
+
+        int level = Leveling.levelForTotalXp(score, ConfigManager.getGeneralConfig());
+        return Text.literal("  Lv " + level).formatted(Formatting.GREEN)
+            .append(Text.literal(" (" + score + " XP)").formatted(Formatting.GRAY));
+    }
+}
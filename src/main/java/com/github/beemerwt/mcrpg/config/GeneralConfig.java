@@ -3,6 +3,8 @@ package com.github.beemerwt.mcrpg.config;
 import com.github.beemerwt.mcrpg.annotation.JankComment;
 import com.github.beemerwt.mcrpg.annotation.JanksonObject;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @JanksonObject
@@ -15,6 +17,8 @@ public class GeneralConfig extends Config {
                 Options:
                 - linear: XP needed increases linearly with level.
                 - quad: XP needed increases quadratically with level.
+                - exponential: XP needed grows by a fixed ratio each level.
+                - table: XP needed for each level is listed explicitly.
                 """)
         public String base = "linear";
 
@@ -26,11 +30,65 @@ public class GeneralConfig extends Config {
         public int quadA = 25;
         public int quadB = 75;
         public int quadC = 150;
+
+        @JankComment("Used only if base is 'exponential'. XP needed = expBase * expGrowth^(L-1)")
+        public double expBase = 1000;
+        public double expGrowth = 1.05;
+
+        @JankComment("Used only if base is 'table'. XP needed for each level starting at level 1; the last entry repeats for higher levels.")
+        public List<Long> table = new ArrayList<>();
+    }
+
+    @JanksonObject
+    public static final class Storage {
+        @JankComment("""
+                Write player data on a dedicated background thread.
+                The server tick only snapshots changed players; the database work happens off-thread.
+                """)
+        public boolean writeBehind = true;
+
+        @JankComment("Max seconds to wait for queued saves to reach the database when the server stops.")
+        public int shutdownFlushSeconds = 15;
+
+        @JankComment("How many times a write is retried while the database is locked before giving up until the next cycle.")
+        public int lockedRetries = 5;
+
+        @JankComment("""
+                Players are loaded in the background while they log in.
+                Max milliseconds the server thread will wait for that load before reading the database itself.
+                """)
+        public long hydrationTimeoutMs = 2000;
+
+        @JankComment("""
+                Offline players touched by furnaces or commands are kept in a separate, bounded cache.
+                Max number of offline players kept in memory.
+                """)
+        public int offlineCacheSize = 256;
+
+        @JankComment("Seconds an offline player may go untouched before being saved and dropped from memory.")
+        public int offlineCacheTtlSeconds = 600;
+
+        @JankComment("Read-only database connections used for lookups and tab-completion, alongside the one writer.")
+        public int readerConnections = 2;
+
+        @JankComment("SQLite page cache per connection in KiB. 0 sizes it from the number of players in the database.")
+        public int pageCacheKb = 0;
+
+        @JankComment("""
+                Append every XP change to a small journal file next to players.db.
+                After a crash, changes made since the last autosave are recovered from it on startup.
+                """)
+        public boolean journal = true;
+
+        @JankComment("Milliseconds between journal syncs to disk. At most this much progress is lost on a power failure.")
+        public long journalSyncMs = 200;
     }
 
     public boolean debug = false;
     public int autoSaveEverySeconds = 300; // 5 minutes
 
+    public Storage storage = new Storage();
+
     @JankComment("""
         Permissions System for McRPG.
         Options:
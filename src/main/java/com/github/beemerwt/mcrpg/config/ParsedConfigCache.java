@@ -0,0 +1,160 @@
+package com.github.beemerwt.mcrpg.config;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonNull;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import blue.endless.jankson.api.SyntaxError;
+import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.managers.ConfigManager;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Binary copies of parsed config trees, keyed by the SHA-256 of the source file.
+ * - An unchanged config is decoded from its cache file instead of being parsed by Jankson again.
+ * - Any edit changes the hash, so the file is parsed normally and the cache rewritten.
+ * - Cache problems are never fatal; the worst case is a normal parse.
+ * Safe to call from several threads at once for different files.
+ */
+public final class ParsedConfigCache {
+    private static final Path DIR = ConfigManager.CONFIG_DIR.resolve(".cache");
+    private static final int MAGIC = 0x4D524331; // "MRC1"
+
+    private static final byte NULL = 0, OBJECT = 1, ARRAY = 2, STRING = 3, LONG = 4, DOUBLE = 5, BOOLEAN = 6;
+
+    private ParsedConfigCache() {}
+
+    /**
+     * Load a config file as a JsonObject, from the cache when the file is unchanged.
+     * @throws IOException if the file can't be read; a NoSuchFileException if it doesn't exist
+     */
+    public static JsonObject load(Path file) throws IOException, SyntaxError {
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] hash = sha256(bytes);
+        Path cache = cacheFileFor(file);
+
+        JsonObject cached = readCache(cache, hash);
+        if (cached != null) return cached;
+
+        // Jankson instances keep parser state, so each parse gets its own
+        JsonObject obj = Jankson.builder().build().load(new ByteArrayInputStream(bytes));
+        writeCache(cache, hash, obj);
+        return obj;
+    }
+
+    // ---------- Internals ----------
+
+    private static Path cacheFileFor(Path file) {
+        Path rel = file.startsWith(ConfigManager.CONFIG_DIR) ? ConfigManager.CONFIG_DIR.relativize(file) : file.getFileName();
+        return DIR.resolve(rel.toString().replace(File.separatorChar, '_') + ".bin");
+    }
+
+    private static JsonObject readCache(Path cache, byte[] hash) {
+        if (!Files.isRegularFile(cache)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache)))) {
+            if (in.readInt() != MAGIC) return null;
+
+            byte[] stored = new byte[hash.length];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, hash)) return null;
+
+            return (readElement(in) instanceof JsonObject obj) ? obj : null;
+        } catch (IOException | RuntimeException e) {
+            McRPG.getLogger().debug("Ignoring unreadable config cache {}: {}", cache, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeCache(Path cache, byte[] hash, JsonObject obj) {
+        try {
+            Files.createDirectories(cache.getParent());
+            Path tmp = cache.resolveSibling(cache.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.write(hash);
+                writeElement(out, obj);
+            }
+
+            try {
+                Files.move(tmp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, cache, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            McRPG.getLogger().debug("Could not write config cache {}: {}", cache, e.getMessage());
+        }
+    }
+
+    private static void writeElement(DataOutputStream out, JsonElement el) throws IOException {
+        switch (el) {
+            case JsonObject o -> {
+                out.writeByte(OBJECT);
+                out.writeInt(o.size());
+                for (var e : o.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    writeElement(out, e.getValue());
+                }
+            }
+            case JsonArray a -> {
+                out.writeByte(ARRAY);
+                out.writeInt(a.size());
+                for (JsonElement x : a) writeElement(out, x);
+            }
+            case JsonPrimitive p -> {
+                switch (p.getValue()) {
+                    case Long l -> { out.writeByte(LONG); out.writeLong(l); }
+                    case Double d -> { out.writeByte(DOUBLE); out.writeDouble(d); }
+                    case Boolean b -> { out.writeByte(BOOLEAN); out.writeBoolean(b); }
+                    default -> { out.writeByte(STRING); out.writeUTF(p.asString()); }
+                }
+            }
+            default -> out.writeByte(NULL);
+        }
+    }
+
+    private static JsonElement readElement(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL: return JsonNull.INSTANCE;
+            case OBJECT: {
+                int n = in.readInt();
+                JsonObject o = new JsonObject();
+                for (int i = 0; i < n; i++) {
+                    String key = in.readUTF();
+                    o.put(key, readElement(in));
+                }
+                return o;
+            }
+            case ARRAY: {
+                int n = in.readInt();
+                JsonArray a = new JsonArray();
+                for (int i = 0; i < n; i++) a.add(readElement(in));
+                return a;
+            }
+            case STRING: return JsonPrimitive.of(in.readUTF());
+            case LONG: return JsonPrimitive.of(in.readLong());
+            case DOUBLE: return JsonPrimitive.of(in.readDouble());
+            case BOOLEAN: return JsonPrimitive.of(in.readBoolean());
+            default: throw new IOException("Unknown element tag " + tag);
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e); // required of every JRE
+        }
+    }
+}
@@ -13,8 +13,8 @@ import com.github.beemerwt.mcrpg.managers.ConfigManager;
 import com.github.beemerwt.mcrpg.util.JanksonSerde;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Optional;
 
@@ -48,6 +48,15 @@ public class SkillConfig extends Config {
     }
 
     public static SkillConfig createOrLoadConfig(SkillType skillType) {
+        return createOrLoadConfig(skillType, false);
+    }
+
+    /**
+     * Load a skill's config, or write its defaults if the file is missing.
+     * A file with a syntax error is left untouched; the defaults are used unless {@code strict},
+     * in which case the error is thrown so a reload can keep the running config.
+     */
+    public static SkillConfig createOrLoadConfig(SkillType skillType, boolean strict) {
         SkillConfig cfg = null;
 
         var skillName = skillType.name().toLowerCase();
@@ -82,17 +91,22 @@ public class SkillConfig extends Config {
         }
 
         // Attempt to load existing config
-        try (InputStream in = Files.newInputStream(skillFile)) {
-            JsonObject obj = J.load(in);
+        try {
+            JsonObject obj = ParsedConfigCache.load(skillFile);
             JanksonSerde.fillFrom(obj, cfg);
             return cfg;
-        } catch (IOException | SyntaxError ignored) {}
+        } catch (NoSuchFileException e) {
+            McRPG.getLogger().info("No config for {} found, creating default.", skillName);
+        } catch (SyntaxError e) {
+            McRPG.getLogger().error(e, "Syntax error in {}: {}", skillFile, e.getMessage());
+            if (strict) throw new IllegalStateException("Syntax error in " + skillFile.getFileName() + ": " + e.getMessage(), e);
+            return cfg;
+        } catch (IOException e) {
+            McRPG.getLogger().error(e, "Failed reading skill config {}; using defaults", skillFile);
+            return cfg;
+        }
 
-        // Update old configs with new fields, or create a new one if missing
         try {
-            if (!skillFile.toFile().exists())
-                McRPG.getLogger().info("No config for {} found, creating default.", skillName);
-
             var jank = JanksonSerde.toJson(cfg);
             Files.createDirectories(skillFile.getParent());
             Files.writeString(skillFile, jank.toJson(true, true));
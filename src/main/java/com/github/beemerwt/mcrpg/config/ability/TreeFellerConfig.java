@@ -1,8 +1,23 @@
 package com.github.beemerwt.mcrpg.config.ability;
 
+import com.github.beemerwt.mcrpg.annotation.JankComment;
 import com.github.beemerwt.mcrpg.annotation.JanksonObject;
 import com.github.beemerwt.mcrpg.config.SuperAbilityConfig;
 
 @JanksonObject
 public class TreeFellerConfig extends SuperAbilityConfig {
-}
\ No newline at end of file
+    @JankComment("Blocks each falling tree breaks per tick; 0 or less fells the whole tree at once")
+    public int blocksPerTick = 64;
+
+    @JankComment("Milliseconds per tick all falling trees together may spend breaking blocks; 0 or less means no time limit")
+    public double maxMillisPerTick = 2.0;
+
+    @JankComment("How many trees one player can have falling at the same time; extra chops are ordinary chops")
+    public int maxTreesPerPlayer = 1;
+
+    @JankComment("Put a felled tree's drops straight into the player's inventory; what doesn't fit drops at the stump")
+    public boolean dropsToInventory = false;
+
+    @JankComment("Search for the tree on a background thread, over a copy of the nearby chunks; the tree falls a tick or so later")
+    public boolean asyncScan = false;
+}
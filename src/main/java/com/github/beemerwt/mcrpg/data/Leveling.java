@@ -3,15 +3,9 @@ package com.github.beemerwt.mcrpg.data;
 import com.github.beemerwt.mcrpg.McRPG;
 import com.github.beemerwt.mcrpg.config.GeneralConfig;
 import com.github.beemerwt.mcrpg.managers.ConfigManager;
+import com.github.beemerwt.mcrpg.managers.LeaderboardManager;
 import com.github.beemerwt.mcrpg.ui.XpBossbarManager;
-import net.minecraft.block.Block;
-import net.minecraft.registry.Registries;
-import net.minecraft.registry.RegistryKeys;
-import net.minecraft.registry.entry.RegistryEntry;
-import net.minecraft.registry.tag.TagKey;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.util.Identifier;
-import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
 
@@ -56,22 +50,10 @@ public final class Leveling {
         setLevelInternal(p, skill, level);
     }
 
-    /** Read effective level */
+    /** Read effective level; O(1) from the player's cached levels. */
     public static int getLevel(PlayerData data, SkillType skill) {
         if (data == null || skill == null) return 0;
-
-        if (SkillLinks.isComposite(skill)) {
-            SkillLinks.Composite c = SkillLinks.compositeOf(skill);
-            if (c == null) {
-                McRPG.getLogger().severe("Composite skill has no definition: " + skill);
-                return 0;
-            }
-
-            return levelFromComposite(data, c);
-        }
-
-        GeneralConfig cfg = ConfigManager.getGeneralConfig();
-        return levelForTotalXp(getRawTotalXpLocal(data, canonical(skill)), cfg);
+        return levels(data)[skill.ordinal()];
     }
 
     /** Read raw total XP */
@@ -104,12 +86,12 @@ public final class Leveling {
         if (amount == 0) return;
         SkillType s = canonical(skill);
 
-        long before = p.xp.getOrDefault(s, 0L);
+        long before = p.getXp(s);
         long after  = clampTotal(before + amount);
         if (after == before) return;
 
-        p.xp.put(s, after);
-        p.dirty = true;
+        p.setXp(s, after);
+        onXpChanged(p, s, after);
     }
 
     private static void setLevelInternal(PlayerData p, SkillType skill, int level) {
@@ -121,14 +103,23 @@ public final class Leveling {
 
     private static void setRawTotalXpInternal(PlayerData p, SkillType s, long total) {
         long clamped = clampTotal(total);
-        Long prev = p.xp.put(s, clamped);
-        if (!Objects.equals(prev, clamped)) {
-            p.dirty = true;
+        boolean changed = !p.hasXp(s) || p.getXp(s) != clamped;
+        p.setXp(s, clamped);
+        if (changed) {
+            onXpChanged(p, s, clamped);
         }
     }
 
+    /** Every stored XP change goes through here. */
+    private static void onXpChanged(PlayerData p, SkillType s, long total) {
+        updateLevel(p, s, total);
+        p.markDirty(s);
+        McRPG.getStore().journal(p, s, total);
+        LeaderboardManager.onXpChanged(p, s, total);
+    }
+
     private static long getRawTotalXpLocal(PlayerData p, SkillType s) {
-        return p.xp.getOrDefault(s, 0L);
+        return p.getXp(s);
     }
 
     private static SkillType canonical(SkillType s) {
@@ -137,30 +128,66 @@ public final class Leveling {
     }
 
     private static boolean preGateXpGain(PlayerData p, SkillType s) {
-        // Hard gate: disable XP when at/over configured max level.
-        var cfg = ConfigManager.getGeneralConfig();
-        int current = levelForTotalXp(getRawTotalXpLocal(p, canonical(s)), cfg);
-        return current < cfg.maxLevel;
+        // Hard gate: disable XP when at/over configured max level. Composites are gated per part.
+        if (SkillLinks.isComposite(s)) return true;
+        return getLevel(p, s) < ConfigManager.getGeneralConfig().maxLevel;
     }
 
-    // ------------- Curve Helpers --------------
+    // ------------- Level Cache ----------------
+
+    /** The player's cached levels, rebuilt if the curve changed since they were computed. */
+    private static int[] levels(PlayerData p) {
+        XpCurveTable t = curve();
+        if (p.levelsEpoch != t.epoch) {
+            for (SkillType s : SkillType.values()) {
+                if (!SkillLinks.isComposite(s)) p.levels[s.ordinal()] = t.levelFor(getRawTotalXpLocal(p, canonical(s)));
+            }
+            for (SkillType s : SkillType.values()) {
+                if (SkillLinks.isComposite(s)) p.levels[s.ordinal()] = compositeLevel(p.levels, s);
+            }
+            p.levelsEpoch = t.epoch;
+        }
+        return p.levels;
+    }
+
+    /** Update the cache for one canonical skill, plus its aliases and any composite built on it. */
+    private static void updateLevel(PlayerData p, SkillType s, long total) {
+        XpCurveTable c = curve();
+        if (p.levelsEpoch != c.epoch) return; // rebuilt in full on next read
 
-    private static boolean isLinear(GeneralConfig.XpCurve curve) {
-        // Preserve previous semantics: "linear" vs "quadratic" etc by base string
-        return curve != null && "linear".equalsIgnoreCase(curve.base);
+        int level = c.levelFor(total);
+        if (p.levels[s.ordinal()] == level) return;
+
+        for (SkillType t : SkillType.values()) {
+            if (SkillLinks.primaryOf(t) == s) p.levels[t.ordinal()] = level;
+        }
+        for (SkillType t : SkillType.values()) {
+            if (SkillLinks.isComposite(t)) p.levels[t.ordinal()] = compositeLevel(p.levels, t);
+        }
     }
 
-    private static long xpForLevel(int level, GeneralConfig.XpCurve curve) {
-        if (isLinear(curve)) {
-            // per-level requirement at this level
-            return curve.linearBase + (long) level * curve.multiplier;
+    private static int compositeLevel(int[] levels, SkillType composite) {
+        SkillLinks.Composite c = SkillLinks.compositeOf(composite);
+        if (c == null) {
+            McRPG.getLogger().severe("Composite skill has no definition: " + composite);
+            return 0;
         }
-        // quadratic per-level requirement: a*L^2 + b*L + c
-        return curve.quadA * (long) level * (long) level + curve.quadB * (long) level + curve.quadC;
+
+        long totalLevel = 0L;
+        for (SkillType part : c.parts()) totalLevel += levels[SkillLinks.primaryOf(part).ordinal()];
+        return (int) Math.min(totalLevel / c.parts().length, ConfigManager.getGeneralConfig().maxLevel);
     }
 
+    // ------------- Curve Helpers --------------
+
+    /** The live config's compiled curve; swapped together with the rest of the config on reload. */
+    private static XpCurveTable curve() {
+        return ConfigManager.getXpCurve();
+    }
+
+    /** XP needed to go from level - 1 to the given level. */
     public static long xpForLevel(int level) {
-        return xpForLevel(level, ConfigManager.getGeneralConfig().xpCurve);
+        return curve().step(level);
     }
 
     /**
@@ -169,20 +196,7 @@ public final class Leveling {
      * @return total XP required
      */
     public static long totalXpForLevel(int level) {
-        if (level <= 0) return 0L;
-
-        var curve = ConfigManager.getGeneralConfig().xpCurve;
-
-        if (isLinear(curve)) {
-            // Sum_{i=1..L} (base + i*multiplier) = L*base + multiplier * L*(L+1)/2
-            return (long) level * curve.linearBase
-                + curve.multiplier * (long) level * ((long) level + 1L) / 2L;
-        }
-
-        // Sum_{i=1..L} (a*i^2 + b*i + c)
-        long S1 = (long) level * ((long) level + 1L) / 2L;  // 1 + 2 + ... + L
-        long S2 = (long) level * ((long) level + 1L) * (2L * (long) level + 1L) / 6L; // 1^2 + 2^2 + ... + L^2
-        return curve.quadA * S2 + curve.quadB * S1 + curve.quadC * (long) level;
+        return curve().totalFor(level);
     }
 
     /**
@@ -191,31 +205,11 @@ public final class Leveling {
      * @return level (0..maxLevel)
      */
     public static int levelForTotalXp(long total, GeneralConfig cfg) {
-        var curve = cfg.xpCurve;
-
-        if (isLinear(curve)) {
-            double lvl = levelFromLinearXP(total, curve.linearBase, curve.multiplier);
-            return Math.min((int) Math.floor(lvl), cfg.maxLevel);
-        }
-
-        // Quadratic
-        double lvl = levelFromQuadraticXP(total, curve.quadA, curve.quadB, curve.quadC);
-        return Math.min((int) Math.floor(lvl), cfg.maxLevel);
-    }
-
-    private static int levelFromComposite(PlayerData p, @NotNull SkillLinks.Composite c) {
-        var cfg = ConfigManager.getGeneralConfig();
-
-        long totalLevel = 0L;
-        for (var part : c.parts()) {
-            totalLevel += levelForTotalXp(p.xp.get(part), cfg);
-        }
-
-        return (int) Math.min(totalLevel / c.parts().length, cfg.maxLevel);
+        return curve().levelFor(total);
     }
 
     private static long clampTotal(long v) {
-        long maxTotalXp = totalXpForLevel(ConfigManager.getGeneralConfig().maxLevel);
+        long maxTotalXp = curve().maxTotal();
         if (maxTotalXp <= 0) maxTotalXp = Long.MAX_VALUE;
         if (v < 0) return 0L;
         return Math.min(v, maxTotalXp);
@@ -239,103 +233,4 @@ public final class Leveling {
         float scale = (float) level / ConfigManager.getGeneralConfig().maxLevel;
         return Math.round(org.joml.Math.lerp((float)a, (float)b, scale));
     }
-
-    public static long resolveBlockXp(Map<String, Integer> blocks, Block block) {
-        var id = Registries.BLOCK.getId(block);
-
-        Integer direct = blocks.get(id.toString());
-        if (direct != null) return direct;
-
-        if (!blocks.isEmpty()) {
-            RegistryEntry<Block> entry = Registries.BLOCK.getEntry(block);
-            for (Map.Entry<String, Integer> e : blocks.entrySet()) {
-                String key = e.getKey();
-                if (!key.startsWith("#")) continue;
-                Identifier tagId = Identifier.tryParse(key.substring(1));
-                if (tagId == null) continue;
-                TagKey<Block> tagKey = TagKey.of(RegistryKeys.BLOCK, tagId);
-                if (entry.isIn(tagKey)) return e.getValue();
-            }
-        }
-
-        return 0;
-    }
-
-    private static double levelFromLinearXP(double total, double base, double mult) {
-        total = Math.max(0.0, total);
-        if (mult == 0.0) {
-            // C(L) = base*L
-            return base > 0 ? (total / base) : 0.0;
-        }
-
-        // C(L) = base*L + (mult/2)*(L^2 + L)
-        // Solve a L^2 + d L - total = 0, d = base + mult/2
-        double d = base + (mult * 0.5);
-        double radicand = d * d + 2.0 * mult * Math.max(0L, total);
-        if (radicand < 0 && radicand > -1e-9) radicand = 0;
-
-        return (-d + Math.sqrt(radicand)) / mult; // positive root
-    }
-
-    // Here's some comedic relief
-    private static double levelFromQuadraticXP(double total, double a, double b, double c) {
-        total = Math.max(0.0, total);
-
-        // Degenerate cases
-        if (Math.abs(a) < 1e-12) {
-            // Falls back to linear per-level: cost = b*i + c
-            // C(L) = (b/2)L^2 + (b/2 + c)L
-            double A = b / 2.0;
-            double B = (b / 2.0) + c;
-            double C = -total;
-            if (Math.abs(A) < 1e-12) {
-                // C(L) = B L
-                return B > 0 ? (total / B) : 0.0;
-            }
-            double disc = B * B - 4.0 * A * C;
-            if (disc < 0 && disc > -1e-9) disc = 0;
-            return (-B + Math.sqrt(Math.max(0.0, disc))) / (2.0 * A);
-        }
-
-        // Cubic coefficients: α L^3 + β L^2 + γ L + δ = 0
-        double alpha = a / 3.0;
-        double beta  = (a + b) / 2.0;
-        double gamma = a / 6.0 + b / 2.0 + c;
-        double delta = -total;
-
-        // Depress the cubic: L = y - beta/(3*alpha)
-        double inv3alpha = 1.0 / (3.0 * alpha);
-        double shift = beta * inv3alpha;
-
-        // y^3 + p y + q = 0
-        double p = (3.0 * alpha * gamma - beta * beta) / (3.0 * alpha * alpha);
-        double q = (27.0 * alpha * alpha * delta - 9.0 * alpha * beta * gamma + 2.0 * beta * beta * beta)
-            / (27.0 * alpha * alpha * alpha);
-
-        double halfQ = q * 0.5;
-        double thirdP = p / 3.0;
-        double disc = halfQ * halfQ + thirdP * thirdP * thirdP; // Δ
-
-        double y;
-        if (disc >= 0) {
-            // One real root
-            double sqrtD = Math.sqrt(disc);
-            double u = Math.cbrt(-halfQ + sqrtD);
-            double v = Math.cbrt(-halfQ - sqrtD);
-            y = u + v;
-        } else {
-            // Three real roots, pick the largest (monotone cumulative implies this is the physical one)
-            double r = Math.sqrt(-thirdP);
-            double cosArg = -halfQ / (r * r * r);
-            // Clamp numerical drift
-            cosArg = Math.max(-1.0, Math.min(1.0, cosArg));
-            double theta = Math.acos(cosArg);
-            // Roots: 2r cos((θ + 2kπ)/3), k = 0,1,2. Largest is k = 0.
-            y = 2.0 * r * Math.cos(theta / 3.0);
-        }
-
-        double L = y - shift;
-        if (L < 0 && L > -1e-9) L = 0; // clean tiny negative
-        return Math.max(0.0, L);
-    }
 }
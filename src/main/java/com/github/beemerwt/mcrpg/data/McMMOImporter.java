@@ -0,0 +1,319 @@
+package com.github.beemerwt.mcrpg.data;
+
+import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.managers.ConfigManager;
+import com.github.beemerwt.mcrpg.managers.LeaderboardManager;
+import com.github.beemerwt.mcrpg.util.AsyncIO;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Streams players out of an mcMMO database into the PlayerStore.
+ * - Sources: the flatfile {@code mcmmo.users}, or mcMMO's SQL tables over JDBC.
+ * - mcMMO stores a level plus progress into it; both are converted onto our XP curve, so players
+ *   keep their levels. Skills we don't have (taming, fishing, ...) are ignored.
+ * - Rows are written {@link #BATCH_PLAYERS} at a time through {@link PlayerStore#importBatch},
+ *   which saves a resume cursor with each batch; re-running the same import continues from there.
+ * - Only one import runs at a time, on its own thread.
+ */
+public final class McMMOImporter {
+    private static final int BATCH_PLAYERS = 500; // one transaction each; keeps the shared writer free between them
+    private static final long REPORT_EVERY_MS = 5_000L;
+
+    // mcMMO FlatFileDatabaseManager column indexes: { level, xp into level }
+    private static final int FF_USERNAME = 0;
+    private static final int FF_UUID = 41;
+    private static final Map<SkillType, int[]> FF_COLUMNS = new EnumMap<>(SkillType.class);
+
+    static {
+        FF_COLUMNS.put(SkillType.MINING,      new int[] { 1, 4 });
+        FF_COLUMNS.put(SkillType.WOODCUTTING, new int[] { 5, 6 });
+        FF_COLUMNS.put(SkillType.REPAIR,      new int[] { 7, 15 });
+        FF_COLUMNS.put(SkillType.UNARMED,     new int[] { 8, 16 });
+        FF_COLUMNS.put(SkillType.HERBALISM,   new int[] { 9, 17 });
+        FF_COLUMNS.put(SkillType.EXCAVATION,  new int[] { 10, 18 });
+        FF_COLUMNS.put(SkillType.ARCHERY,     new int[] { 11, 19 });
+        FF_COLUMNS.put(SkillType.SWORDS,      new int[] { 12, 20 });
+        FF_COLUMNS.put(SkillType.AXES,        new int[] { 13, 21 });
+        FF_COLUMNS.put(SkillType.ACROBATICS,  new int[] { 14, 22 });
+    }
+
+    private static final AtomicBoolean RUNNING = new AtomicBoolean(false);
+    private static volatile boolean cancelled = false;
+
+    private McMMOImporter() {}
+
+    public static boolean isRunning() {
+        return RUNNING.get();
+    }
+
+    /** Stop after the current batch; its cursor is kept so the import can be resumed. */
+    public static boolean cancel() {
+        if (!RUNNING.get()) return false;
+        cancelled = true;
+        return true;
+    }
+
+    /** @return false if another import is already running */
+    public static boolean startFlatfile(PlayerStore store, Path file, Consumer<String> progress) {
+        return start(progress, () -> importFlatfile(store, file.toAbsolutePath().normalize(), progress));
+    }
+
+    /**
+     * @param jdbcUrl connection URL with credentials, e.g. {@code jdbc:mysql://host/db?user=u&password=p};
+     *                the matching JDBC driver must be on the classpath
+     * @param prefix  mcMMO table prefix, usually {@code mcmmo_}
+     * @return false if another import is already running
+     */
+    public static boolean startSql(PlayerStore store, String jdbcUrl, String prefix, Consumer<String> progress) {
+        return start(progress, () -> importSql(store, jdbcUrl, prefix, progress));
+    }
+
+    @FunctionalInterface
+    private interface Job { void run() throws Exception; }
+
+    private static boolean start(Consumer<String> progress, Job job) {
+        if (!RUNNING.compareAndSet(false, true)) return false;
+        cancelled = false;
+
+        AsyncIO.daemonFactory("McRPG-Import").newThread(() -> {
+            try {
+                job.run();
+            } catch (Exception e) {
+                McRPG.getLogger().error(e, "mcMMO import failed");
+                progress.accept("Import failed: " + e.getMessage() + ". Run it again to resume.");
+            } finally {
+                RUNNING.set(false);
+            }
+        }).start();
+        return true;
+    }
+
+    // ---------- Flatfile ----------
+
+    private static void importFlatfile(PlayerStore store, Path file, Consumer<String> progress) throws Exception {
+        String source = "flatfile:" + file;
+        long size = Math.max(1L, Files.size(file));
+        long resumeLine = parseCursor(store.importCursor(source));
+        if (resumeLine > 0) progress.accept("Resuming " + file.getFileName() + " after line " + resumeLine + ".");
+
+        Stats stats = new Stats();
+        List<PlayerStore.ImportRow> batch = new ArrayList<>(BATCH_PLAYERS);
+        long line = 0L;
+        long bytes = 0L;
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String raw;
+            while ((raw = in.readLine()) != null) {
+                line++;
+                bytes += raw.length() + 1L;
+                if (line <= resumeLine || raw.isBlank() || raw.startsWith("#")) continue;
+
+                PlayerStore.ImportRow row = parseFlatfileLine(raw);
+                if (row == null) stats.invalid++;
+                else batch.add(row);
+
+                if (batch.size() >= BATCH_PLAYERS) {
+                    flush(store, source, Long.toString(line), batch, stats);
+                    if (stats.shouldReport()) progress.accept(stats.line(100.0 * bytes / size));
+                    if (cancelled) {
+                        progress.accept("Import cancelled after line " + line + "; run it again to resume.");
+                        return;
+                    }
+                }
+            }
+        }
+
+        flush(store, source, Long.toString(line), batch, stats);
+        store.clearImportCursor(source);
+        progress.accept("Import finished. " + stats.line(100.0));
+    }
+
+    /** @return null if the line has no usable UUID or is malformed */
+    private static @Nullable PlayerStore.ImportRow parseFlatfileLine(String raw) {
+        String[] f = raw.split(":", -1);
+        if (f.length <= FF_UUID) return null;
+
+        UUID id;
+        try {
+            id = UUID.fromString(f[FF_UUID].trim());
+        } catch (IllegalArgumentException e) {
+            return null; // pre-UUID entry; there's no safe way to match it to a player
+        }
+
+        Map<SkillType, Long> xp = new EnumMap<>(SkillType.class);
+        for (var e : FF_COLUMNS.entrySet()) {
+            int[] cols = e.getValue();
+            long total = toTotalXp(parseLong(f[cols[0]]), parseLong(f[cols[1]]));
+            if (total > 0L) xp.put(e.getKey(), total);
+        }
+
+        String name = f[FF_USERNAME].trim();
+        return new PlayerStore.ImportRow(id, name.isEmpty() ? null : name, xp);
+    }
+
+    // ---------- SQL ----------
+
+    private static void importSql(PlayerStore store, String jdbcUrl, String prefix, Consumer<String> progress) throws Exception {
+        // Never keep credentials in the cursor key
+        int q = jdbcUrl.indexOf('?');
+        String source = "sql:" + prefix + "@" + (q < 0 ? jdbcUrl : jdbcUrl.substring(0, q));
+        long lastId = parseCursor(store.importCursor(source));
+        if (lastId > 0) progress.accept("Resuming after mcMMO user id " + lastId + ".");
+
+        List<SkillType> skills = new ArrayList<>(FF_COLUMNS.keySet());
+        StringBuilder cols = new StringBuilder();
+        for (SkillType s : skills) {
+            String c = s.name().toLowerCase(Locale.ROOT);
+            cols.append(", s.").append(c).append(", e.").append(c);
+        }
+
+        String select = "SELECT u.id, u.user, u.uuid" + cols +
+            " FROM " + prefix + "users u" +
+            " JOIN " + prefix + "skills s ON s.user_id = u.id" +
+            " JOIN " + prefix + "experience e ON e.user_id = u.id" +
+            " WHERE u.id > ? ORDER BY u.id LIMIT " + BATCH_PLAYERS;
+
+        try (Connection c = DriverManager.getConnection(jdbcUrl)) {
+            c.setReadOnly(true);
+
+            long remaining;
+            try (Statement s = c.createStatement();
+                 ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM " + prefix + "users WHERE id > " + lastId)) {
+                remaining = rs.next() ? Math.max(1L, rs.getLong(1)) : 1L;
+            }
+
+            Stats stats = new Stats();
+            List<PlayerStore.ImportRow> batch = new ArrayList<>(BATCH_PLAYERS);
+            try (PreparedStatement ps = c.prepareStatement(select)) {
+                while (true) {
+                    ps.setLong(1, lastId);
+                    int rows = 0;
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            rows++;
+                            lastId = rs.getLong(1);
+                            PlayerStore.ImportRow row = readSqlRow(rs, skills);
+                            if (row == null) stats.invalid++;
+                            else batch.add(row);
+                        }
+                    }
+                    if (rows == 0) break;
+
+                    flush(store, source, Long.toString(lastId), batch, stats);
+                    if (stats.shouldReport()) progress.accept(stats.line(Math.min(100.0, 100.0 * stats.seen() / remaining)));
+                    if (cancelled) {
+                        progress.accept("Import cancelled after mcMMO user id " + lastId + "; run it again to resume.");
+                        return;
+                    }
+                }
+            }
+
+            store.clearImportCursor(source);
+            progress.accept("Import finished. " + stats.line(100.0));
+        }
+    }
+
+    private static @Nullable PlayerStore.ImportRow readSqlRow(ResultSet rs, List<SkillType> skills) throws SQLException {
+        String rawId = rs.getString(3);
+        if (rawId == null) return null;
+
+        UUID id;
+        try {
+            id = UUID.fromString(rawId.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        Map<SkillType, Long> xp = new EnumMap<>(SkillType.class);
+        int col = 4;
+        for (SkillType s : skills) {
+            long total = toTotalXp(rs.getLong(col), rs.getLong(col + 1));
+            if (total > 0L) xp.put(s, total);
+            col += 2;
+        }
+        return new PlayerStore.ImportRow(id, rs.getString(2), xp);
+    }
+
+    // ---------- Shared ----------
+
+    private static void flush(PlayerStore store, String source, String cursor,
+                              List<PlayerStore.ImportRow> batch, Stats stats) {
+        List<PlayerStore.ImportRow> written = store.importBatch(source, cursor, batch);
+        for (var row : written) LeaderboardManager.onImported(row.id(), row.name(), row.xp());
+
+        stats.imported += written.size();
+        stats.skipped += batch.size() - written.size();
+        batch.clear();
+    }
+
+    /** mcMMO level + progress into that level, as a total on our curve. */
+    private static long toTotalXp(long level, long progress) {
+        int max = ConfigManager.getGeneralConfig().maxLevel;
+        if (level >= max) return Leveling.totalXpForLevel(max);
+        if (level <= 0L && progress <= 0L) return 0L;
+
+        int lvl = (int) Math.max(0L, level);
+        long base = Leveling.totalXpForLevel(lvl);
+        long step = Leveling.totalXpForLevel(lvl + 1) - base;
+        return base + Math.max(0L, Math.min(progress, step - 1L));
+    }
+
+    private static long parseLong(String raw) {
+        try {
+            return (long) Double.parseDouble(raw.trim()); // some mcMMO versions write XP as floats
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static long parseCursor(@Nullable String raw) {
+        if (raw == null) return 0L;
+        try {
+            return Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static final class Stats {
+        final long started = System.currentTimeMillis();
+        long lastReport = started;
+        long imported, skipped, invalid;
+
+        long seen() {
+            return imported + skipped + invalid;
+        }
+
+        boolean shouldReport() {
+            long now = System.currentTimeMillis();
+            if (now - lastReport < REPORT_EVERY_MS) return false;
+            lastReport = now;
+            return true;
+        }
+
+        String line(double percent) {
+            long secs = Math.max(1L, (System.currentTimeMillis() - started) / 1000L);
+            return String.format("%.1f%%: %d imported, %d skipped (loaded), %d without UUID; %d players/s",
+                percent, imported, skipped, invalid, seen() / secs);
+        }
+    }
+}
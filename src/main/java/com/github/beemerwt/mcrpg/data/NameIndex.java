@@ -0,0 +1,180 @@
+package com.github.beemerwt.mcrpg.data;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Case-folded, sorted index of every known player name, for lookups and tab-completion.
+ * - Readers binary-search an immutable sorted array, so they never lock and never touch SQL.
+ * - Writers (logins with a new name, imports) copy-on-write under a lock; those are rare
+ *   compared to suggestion requests.
+ * - Counting a prefix and reading any page of it are O(log n), so paging needs no OFFSET scan.
+ */
+final class NameIndex {
+    /** {@code folded} is the lower-cased name; entries sort by it, then by UUID. */
+    record Entry(String folded, String name, UUID id, long stamp) {}
+
+    private static final Comparator<Entry> ORDER =
+        Comparator.comparing(Entry::folded).thenComparing(Entry::id);
+
+    private final Object lock = new Object();
+    private final Map<UUID, Entry> byId = new HashMap<>(); // guarded by lock
+    private volatile Entry[] sorted = new Entry[0];
+    private long clock;                                    // guarded by lock
+
+    static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /** Bulk load at startup; replaces the current contents. */
+    void load(Map<UUID, String> names) {
+        synchronized (lock) {
+            byId.clear();
+            Entry[] all = new Entry[names.size()];
+            int i = 0;
+            for (var e : names.entrySet()) {
+                Entry entry = new Entry(fold(e.getValue()), e.getValue(), e.getKey(), ++clock);
+                byId.put(e.getKey(), entry);
+                all[i++] = entry;
+            }
+            Arrays.sort(all, ORDER);
+            sorted = all;
+        }
+    }
+
+    int size() {
+        return sorted.length;
+    }
+
+    /** Record a player's current name. A null or blank name is ignored. */
+    void put(UUID id, @Nullable String name) {
+        if (name == null || name.isBlank()) return;
+        synchronized (lock) {
+            Entry prev = byId.get(id);
+            if (prev != null && prev.name.equals(name)) return;
+
+            Entry next = new Entry(fold(name), name, id, ++clock);
+            Entry[] cur = sorted;
+            if (prev != null) cur = without(cur, prev);
+            sorted = with(cur, next);
+            byId.put(id, next);
+        }
+    }
+
+    /** Like {@link #put} but keeps an existing name. */
+    void putIfAbsent(UUID id, @Nullable String name) {
+        if (name == null || name.isBlank()) return;
+        synchronized (lock) {
+            if (byId.containsKey(id)) return;
+            put(id, name);
+        }
+    }
+
+    /** Batch form of {@link #putIfAbsent}, merged in one pass; used by imports. */
+    void putAllIfAbsent(Map<UUID, String> names) {
+        synchronized (lock) {
+            List<Entry> added = new ArrayList<>(names.size());
+            for (var e : names.entrySet()) {
+                String name = e.getValue();
+                if (name == null || name.isBlank() || byId.containsKey(e.getKey())) continue;
+                Entry entry = new Entry(fold(name), name, e.getKey(), ++clock);
+                byId.put(e.getKey(), entry);
+                added.add(entry);
+            }
+            if (added.isEmpty()) return;
+
+            added.sort(ORDER);
+            Entry[] a = sorted;
+            Entry[] out = new Entry[a.length + added.size()];
+            int i = 0, j = 0, k = 0;
+            while (i < a.length && j < added.size()) {
+                out[k++] = (ORDER.compare(a[i], added.get(j)) <= 0) ? a[i++] : added.get(j++);
+            }
+            while (i < a.length) out[k++] = a[i++];
+            while (j < added.size()) out[k++] = added.get(j++);
+            sorted = out;
+        }
+    }
+
+    /** Exact, case-insensitive. If several players once used the name, the latest holder wins. */
+    @Nullable UUID find(String name) {
+        Entry[] a = sorted;
+        String f = fold(name);
+        Entry best = null;
+        for (int i = lowerBound(a, f); i < a.length && a[i].folded.equals(f); i++) {
+            if (best == null || a[i].stamp > best.stamp) best = a[i];
+        }
+        return (best != null) ? best.id : null;
+    }
+
+    int countByPrefix(String prefix) {
+        Entry[] a = sorted;
+        String f = fold(prefix);
+        return upperBound(a, f) - lowerBound(a, f);
+    }
+
+    List<Entry> listByPrefix(String prefix, int offset, int limit) {
+        Entry[] a = sorted;
+        String f = fold(prefix);
+        int from = lowerBound(a, f) + Math.max(0, offset);
+        int to = Math.min(upperBound(a, f), from + Math.max(0, limit));
+
+        List<Entry> out = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) out.add(a[i]);
+        return out;
+    }
+
+    // ---------- Internals ----------
+
+    /** First index whose folded name is >= key. */
+    private static int lowerBound(Entry[] a, String key) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid].folded.compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** First index whose folded name does not start with prefix (and sorts after it). */
+    private static int upperBound(Entry[] a, String prefix) {
+        int lo = lowerBound(a, prefix), hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid].folded.startsWith(prefix)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static Entry[] with(Entry[] a, Entry e) {
+        int at = Arrays.binarySearch(a, e, ORDER);
+        if (at >= 0) return a;
+        at = -at - 1;
+
+        Entry[] out = new Entry[a.length + 1];
+        System.arraycopy(a, 0, out, 0, at);
+        out[at] = e;
+        System.arraycopy(a, at, out, at + 1, a.length - at);
+        return out;
+    }
+
+    private static Entry[] without(Entry[] a, Entry e) {
+        int at = Arrays.binarySearch(a, e, ORDER);
+        if (at < 0) return a;
+
+        Entry[] out = new Entry[a.length - 1];
+        System.arraycopy(a, 0, out, 0, at);
+        System.arraycopy(a, at + 1, out, at, a.length - at - 1);
+        return out;
+    }
+}
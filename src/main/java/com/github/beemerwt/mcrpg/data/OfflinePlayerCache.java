@@ -0,0 +1,127 @@
+package com.github.beemerwt.mcrpg.data;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Second-tier cache for players who are not online (furnace owners, command targets).
+ * - Bounded by size (least recently used goes first) and by time since last access.
+ * - Every eviction is handed to {@code onEvict}, which writes the player through if dirty. That runs
+ *   outside this cache's lock; the entry stays readable meanwhile and is only dropped once it is clean
+ *   and nobody touched it, so a failed write is retried on the next eviction instead of being lost.
+ */
+final class OfflinePlayerCache {
+    private record Entry(PlayerData data, long lastAccessMs) {}
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final Consumer<PlayerData> onEvict;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<UUID> evicting = new HashSet<>(); // picked for eviction, write-through in progress
+
+    OfflinePlayerCache(int maxSize, long ttlMs, Consumer<PlayerData> onEvict) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlMs = Math.max(0L, ttlMs);
+        this.onEvict = onEvict;
+    }
+
+    synchronized @Nullable PlayerData get(UUID id) {
+        Entry e = entries.get(id);
+        if (e == null) return null;
+        entries.put(id, new Entry(e.data, System.currentTimeMillis()));
+        return e.data;
+    }
+
+    synchronized boolean contains(UUID id) {
+        return entries.containsKey(id);
+    }
+
+    PlayerData computeIfAbsent(UUID id, Function<UUID, PlayerData> loader) {
+        PlayerData pd;
+        List<Entry> victims;
+        synchronized (this) {
+            PlayerData existing = get(id);
+            if (existing != null) return existing;
+
+            pd = loader.apply(id);
+            entries.put(id, new Entry(pd, System.currentTimeMillis()));
+            victims = overSize();
+        }
+        evict(victims);
+        return pd;
+    }
+
+    void put(PlayerData pd) {
+        List<Entry> victims;
+        synchronized (this) {
+            entries.put(pd.id, new Entry(pd, System.currentTimeMillis()));
+            victims = overSize();
+        }
+        evict(victims);
+    }
+
+    /** Remove without write-through, e.g. when promoting a player back to the online cache. */
+    synchronized @Nullable PlayerData remove(UUID id) {
+        Entry e = entries.remove(id);
+        return (e != null) ? e.data : null;
+    }
+
+    synchronized List<PlayerData> values() {
+        List<PlayerData> out = new ArrayList<>(entries.size());
+        for (Entry e : entries.values()) out.add(e.data);
+        return out;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /** Drop entries idle for longer than the TTL. */
+    void expire() {
+        List<Entry> victims = new ArrayList<>();
+        synchronized (this) {
+            long cutoff = System.currentTimeMillis() - ttlMs;
+            for (Entry e : entries.values()) {
+                if (e.lastAccessMs > cutoff) break; // access order: everything after is newer
+                if (evicting.add(e.data.id)) victims.add(e);
+            }
+        }
+        evict(victims);
+    }
+
+    /** Pick the least recently used entries beyond maxSize. Caller holds this. */
+    private List<Entry> overSize() {
+        int excess = entries.size() - evicting.size() - maxSize;
+        if (excess <= 0) return List.of();
+
+        List<Entry> victims = new ArrayList<>(excess);
+        for (Entry e : entries.values()) {
+            if (victims.size() >= excess) break;
+            if (evicting.add(e.data.id)) victims.add(e);
+        }
+        return victims;
+    }
+
+    /** Write the victims through without holding the lock, then drop the ones that are done. */
+    private void evict(List<Entry> victims) {
+        for (Entry e : victims) {
+            onEvict.accept(e.data);
+
+            synchronized (this) {
+                evicting.remove(e.data.id);
+                // A get() meanwhile replaced the entry; a failed write left it dirty
+                if (entries.get(e.data.id) == e && !e.data.dirty) entries.remove(e.data.id);
+            }
+        }
+    }
+}
@@ -2,8 +2,8 @@ package com.github.beemerwt.mcrpg.data;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -11,35 +11,100 @@ public final class PlayerData {
     public final UUID id;
     String name;
 
-    // Package-private so we handle through Leveling class only
-    final Map<SkillType, Long> xp;
+    private static final SkillType[] SKILLS = SkillType.values();
+
+    // Total XP per SkillType.ordinal(); package-private so we handle through Leveling class only.
+    // A skill's bit in present means it has a stored value (possibly 0).
+    private final long[] xp = new long[SKILLS.length];
+    private int present = 0;
 
     volatile boolean dirty = false;
 
-    public PlayerData(UUID id, @Nullable String name, Map<SkillType, Long> xp) {
+    // One bit per SkillType.ordinal(); only these rows are written on the next save
+    private int dirtySkills = 0;
+
+    // Bumped on every mutation so queued snapshots can be ordered
+    private long version = 0L;
+
+    // Level per SkillType.ordinal(), composites and aliases included; maintained by Leveling.
+    // Only valid while levelsEpoch matches the compiled curve's epoch.
+    final int[] levels = new int[SkillType.values().length];
+    int levelsEpoch = -1;
+
+    public PlayerData(UUID id, @Nullable String name) {
         this.id = Objects.requireNonNull(id, "PlayerData uuid");
         this.name = name;
-        this.xp = new EnumMap<>(Objects.requireNonNull(xp, "PlayerData xp"));
     }
 
-    public PlayerData(UUID id, @Nullable String name) {
-        this(id, name, new EnumMap<>(SkillType.class));
+    public PlayerData(UUID id) {
+        this(id, null);
     }
 
-    public PlayerData(UUID id) {
-        this(id, null, new EnumMap<>(SkillType.class));
+    long getXp(SkillType skill) {
+        return xp[skill.ordinal()];
+    }
+
+    boolean hasXp(SkillType skill) {
+        return (present & (1 << skill.ordinal())) != 0;
+    }
+
+    /** Raw store; does not mark anything dirty. Leveling does that for real changes. */
+    void setXp(SkillType skill, long total) {
+        xp[skill.ordinal()] = total;
+        present |= 1 << skill.ordinal();
     }
 
     void setName(String name) {
-        if (!this.name.equals(name)) {
+        if (!Objects.equals(this.name, name)) {
             this.name = name;
-            this.dirty = true;
+            markDirty();
         }
     }
 
     public String getName() {
-        if (name.isEmpty()) return id.toString();
+        if (name == null || name.isEmpty()) return id.toString();
         return name;
     }
-}
 
+    private void markDirty() {
+        version++;
+        dirty = true;
+    }
+
+    void markDirty(SkillType skill) {
+        dirtySkills |= 1 << skill.ordinal();
+        markDirty();
+    }
+
+    /**
+     * Capture an immutable copy of the changed skills and clear the dirty state.
+     * Must be called from the thread that mutates this player (the server thread).
+     */
+    PlayerSnapshot snapshot() {
+        EnumMap<SkillType, Long> changed = new EnumMap<>(SkillType.class);
+        int bits = dirtySkills & present;
+        while (bits != 0) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            changed.put(SKILLS[i], xp[i]);
+            bits &= bits - 1;
+        }
+
+        dirtySkills = 0;
+        dirty = false;
+        return new PlayerSnapshot(id, name, Collections.unmodifiableMap(changed), version);
+    }
+
+    /** Mark a snapshot's skills dirty again after it failed to save. */
+    void requeue(PlayerSnapshot snap) {
+        for (SkillType s : snap.xp().keySet()) dirtySkills |= 1 << s.ordinal();
+        dirty = true;
+    }
+
+    /** Overlay changes from a snapshot that has not been written to the database yet. */
+    void restore(PlayerSnapshot snap) {
+        for (var e : snap.xp().entrySet()) setXp(e.getKey(), e.getValue());
+        levelsEpoch = -1;
+        if (snap.name() != null) name = snap.name();
+        version = Math.max(version, snap.version());
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.beemerwt.mcrpg.data;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a player's changed state, taken on the server thread and handed to the writer.
+ * {@code xp} only holds the skills that changed since the previous snapshot.
+ * A higher version always supersedes a lower one for the same player.
+ */
+record PlayerSnapshot(UUID id, @Nullable String name, Map<SkillType, Long> xp, long version) {
+    boolean isNewerThan(PlayerSnapshot other) {
+        return other == null || version > other.version;
+    }
+
+    /** Combine with an older, still-unwritten snapshot so its changed skills aren't dropped. */
+    PlayerSnapshot mergedOver(@Nullable PlayerSnapshot older) {
+        if (older == null) return this;
+
+        EnumMap<SkillType, Long> merged = new EnumMap<>(SkillType.class);
+        merged.putAll(older.xp);
+        merged.putAll(xp);
+        return new PlayerSnapshot(id, name != null ? name : older.name,
+            Collections.unmodifiableMap(merged), Math.max(version, older.version));
+    }
+}
@@ -5,6 +5,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,6 +15,10 @@ public interface PlayerStore {
     @NotNull PlayerData get(ServerPlayerEntity player);
     @NotNull PlayerData get(UUID id);
 
+    /** Begin loading a player in the background so a later get() doesn't hit the database. */
+    void prefetch(UUID id, @Nullable String name);
+    void discardPrefetch(UUID id);
+
     Optional<PlayerData> lookup(String name);
 
     List<PlayerData> list();
@@ -22,8 +27,33 @@ public interface PlayerStore {
     int countByPrefix(String prefix);
     List<PlayerData> listByPrefix(String prefix, int offset, int limit);
 
+    /** Record a skill's new total so it survives a crash before the next save. Tick thread, must be cheap. */
+    void journal(PlayerData data, SkillType skill, long total);
+
     void save(PlayerData data);
     void saveAll();
+
+    @FunctionalInterface
+    interface SkillRowVisitor {
+        void accept(UUID id, @Nullable String name, SkillType skill, long xp);
+    }
+
+    /** One player from a bulk import; xp holds canonical skill totals. */
+    record ImportRow(UUID id, @Nullable String name, Map<SkillType, Long> xp) {}
+
+    /**
+     * Bulk path for importers: the whole batch and the resume cursor go in one transaction.
+     * Stored XP is never lowered, and players currently loaded in memory or with a save pending are left alone.
+     * @return the rows that were written
+     */
+    List<ImportRow> importBatch(String source, String cursor, List<ImportRow> rows);
+
+    /** Cursor saved with the last batch of this import source, or null if none is in progress. */
+    @Nullable String importCursor(String source);
+    void clearImportCursor(String source);
+
+    /** Stream every stored skill row, including ones still awaiting migration, grouped by player. Runs on the calling thread; don't call on the tick. */
+    void scanSkills(SkillRowVisitor visitor);
 }
 
 
@@ -1,42 +1,98 @@
 package com.github.beemerwt.mcrpg.data;
 
 import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.managers.ConfigManager;
+import com.github.beemerwt.mcrpg.util.AsyncIO;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.server.network.ServerPlayerEntity;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.*;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * SQLite-backed PlayerStore with RAII-style borrows.
  * - Online players live in cache (hydrated). Borrow close() does not evict.
- * - Offline players are hydrated per-borrow; close() saves if dirty and evicts.
+ * - Offline players live in a bounded second tier ({@link OfflinePlayerCache}) and are
+ *   written through when it evicts them.
+ * - With storage.writeBehind, saves only snapshot on the caller's thread; see {@link SqliteWriteBehind}.
+ * - Reads go through a pool of read-only connections ({@link SqliteReaderPool}); all writes use
+ *   the single {@code conn}, serialized by synchronizing on it.
+ * - Every known name is kept in a {@link NameIndex}, so lookups and tab-completion never hit SQL.
+ * - With storage.journal, every XP change is also appended to an {@link XpJournal}; whatever it
+ *   holds at startup (a crash) is replayed into the database before anything else reads it.
  *
- * Tables:
- *   players(uuid TEXT PRIMARY KEY, name TEXT NOT NULL, created_at INTEGER, updated_at INTEGER)
- *   player_skills(uuid TEXT NOT NULL, skill INTEGER NOT NULL, xp INTEGER NOT NULL,
- *                 PRIMARY KEY(uuid, skill), FOREIGN KEY(uuid) REFERENCES players(uuid) ON DELETE CASCADE)
+ * Tables (schema v2, see {@link SqliteSchema}):
+ *   players(uuid BLOB PRIMARY KEY, name TEXT, created_at INTEGER, updated_at INTEGER) WITHOUT ROWID
+ *   player_skills(uuid BLOB NOT NULL, skill INTEGER NOT NULL, xp INTEGER NOT NULL,
+ *                 PRIMARY KEY(uuid, skill), FOREIGN KEY(uuid) REFERENCES players(uuid) ON DELETE CASCADE) WITHOUT ROWID
+ *   uuid is the 16-byte big-endian UUID; skill is {@link SkillType#id()}.
  */
 public final class SqlitePlayerStore implements PlayerStore, Closeable {
+    private static final int MIN_CACHE_KB = 2 * 1024;
+    private static final int MAX_CACHE_KB = 64 * 1024;
+
     private final Path dbPath = FabricLoader.getInstance().getConfigDir().resolve("McRPG").resolve("players.db");
-    private final Connection conn;
+    private final Connection conn; // the writer connection; synchronize on it
+    private final SqliteReaderPool readers;
+    private final @Nullable SqliteWriteBehind writer;
+    private final @Nullable XpJournal journal;
+    private final @Nullable SqliteSchema.Migrator migrator;
+
+    // Login-time hydration runs on its own thread
+    private final ExecutorService loader = AsyncIO.singleThread("McRPG-Loader");
+    private final Map<UUID, CompletableFuture<PlayerData>> hydrating = new ConcurrentHashMap<>();
+    private final long hydrationTimeoutMs;
+
+    private final LongAdder prefetchHits = new LongAdder();
+    private final LongAdder prefetchWaits = new LongAdder();
+    private final LongAdder prefetchWaitNanos = new LongAdder();
+    private final LongAdder prefetchTimeouts = new LongAdder();
 
     // Hot cache for ONLINE players only (hydrated)
     private final Map<UUID, PlayerData> cache = new ConcurrentHashMap<>();
+    private final OfflinePlayerCache offline;
+    private final NameIndex names = new NameIndex();
 
     public SqlitePlayerStore() {
         try {
             Files.createDirectories(dbPath.getParent());
-            this.conn = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
-            initPragmas(conn);
-            createSchema(conn);
+            var storage = ConfigManager.getGeneralConfig().storage;
+
+            this.conn = openConnection();
+            SqliteSchema.createOrUpgrade(conn);
+            this.migrator = SqliteSchema.hasLegacyTables(conn)
+                ? SqliteSchema.startMigration(openConnection())
+                : null;
+
+            int cacheKb = pageCacheKb(conn, storage.pageCacheKb);
+            try (Statement s = conn.createStatement()) {
+                s.execute("PRAGMA cache_size=-" + cacheKb);
+                s.execute("PRAGMA optimize=0x10002"); // analyze anything stale once at open
+            }
+            replayJournal(journalDir());
+            this.journal = storage.journal ? new XpJournal(journalDir(), storage.journalSyncMs) : null;
+
+            loadNames();
+
+            this.readers = new SqliteReaderPool(jdbcUrl(), storage.readerConnections, cacheKb);
+            McRPG.getLogger().debug("players.db: {} KiB page cache per connection, {} reader(s)",
+                cacheKb, Math.max(1, storage.readerConnections));
+
+            this.writer = storage.writeBehind
+                ? new SqliteWriteBehind(conn, storage.lockedRetries, journal)
+                : null;
+            this.hydrationTimeoutMs = Math.max(0L, storage.hydrationTimeoutMs);
+            this.offline = new OfflinePlayerCache(storage.offlineCacheSize,
+                TimeUnit.SECONDS.toMillis(storage.offlineCacheTtlSeconds), this::writeThrough);
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize SqlitePlayerStore", e);
         }
@@ -44,49 +100,181 @@ public final class SqlitePlayerStore implements PlayerStore, Closeable {
 
     // ---------- Schema / setup ----------
 
+    private String jdbcUrl() {
+        return "jdbc:sqlite:" + dbPath;
+    }
+
+    private Path journalDir() {
+        return dbPath.resolveSibling("journal");
+    }
+
+    /** Write the latest journaled totals into the database, then drop the journal. */
+    private void replayJournal(Path dir) throws IOException, SQLException {
+        Map<UUID, Map<SkillType, Long>> recovered = XpJournal.replay(dir);
+        if (!recovered.isEmpty()) {
+            List<PlayerSnapshot> snaps = new ArrayList<>(recovered.size());
+            for (var e : recovered.entrySet()) {
+                if (migrator != null) SqliteSchema.migrateOne(conn, e.getKey()); // don't shadow v1 rows
+                snaps.add(new PlayerSnapshot(e.getKey(), null, e.getValue(), 0L));
+            }
+            writeSnapshots(conn, snaps);
+            McRPG.getLogger().info("Recovered unsaved XP for {} player(s) from the journal", snaps.size());
+        }
+        XpJournal.deleteAll(dir);
+    }
+
+    private void loadNames() throws SQLException {
+        long start = System.nanoTime();
+        Map<UUID, String> all = new HashMap<>();
+        if (migrator != null) SqliteSchema.legacyNames(conn, all); // get() migrates them on demand
+        try (Statement s = conn.createStatement();
+             ResultSet rs = s.executeQuery("SELECT uuid, name FROM players WHERE name IS NOT NULL")) {
+            while (rs.next()) all.put(SqliteSchema.uuidFrom(rs.getBytes(1)), rs.getString(2));
+        }
+        names.load(all);
+        McRPG.getLogger().debug("Indexed {} player names in {} ms", names.size(), (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection c = DriverManager.getConnection(jdbcUrl());
+        initPragmas(c);
+        return c;
+    }
+
+    /**
+     * Page cache sized so the rows of every known player fit, within sane bounds.
+     * @param configuredKb storage.pageCacheKb; 0 means size from the player count
+     */
+    private static int pageCacheKb(Connection c, int configuredKb) throws SQLException {
+        if (configuredKb > 0) return configuredKb;
+
+        long players;
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM players")) {
+            players = rs.next() ? rs.getLong(1) : 0L;
+        }
+
+        // ~40 bytes per player row + index entry, ~30 bytes per skill row, plus b-tree slack
+        long bytes = players * (40L + 30L * SkillType.values().length) * 3L / 2L;
+        return (int) Math.max(MIN_CACHE_KB, Math.min(MAX_CACHE_KB, bytes / 1024L));
+    }
+
     private static void initPragmas(Connection c) throws SQLException {
         try (Statement s = c.createStatement()) {
             s.execute("PRAGMA journal_mode=WAL");
             s.execute("PRAGMA synchronous=NORMAL");
             s.execute("PRAGMA foreign_keys=ON");
             s.execute("PRAGMA temp_store=MEMORY");
+            s.execute("PRAGMA busy_timeout=1000"); // writer thread and server thread may both write
             s.execute("PRAGMA mmap_size=30000000000"); // 30GB hint; SQLite caps internally
         }
     }
 
-    private static void createSchema(Connection c) throws SQLException {
-        try (Statement s = c.createStatement()) {
-            s.execute("""
-                CREATE TABLE IF NOT EXISTS players(
-                  uuid TEXT PRIMARY KEY,
-                  name TEXT,
-                  created_at INTEGER,
-                  updated_at INTEGER
-                )
-                """);
-            s.execute("""
-                CREATE TABLE IF NOT EXISTS player_skills(
-                  uuid TEXT NOT NULL,
-                  skill INTEGER NOT NULL,
-                  xp INTEGER NOT NULL,
-                  PRIMARY KEY(uuid, skill),
-                  FOREIGN KEY(uuid) REFERENCES players(uuid) ON DELETE CASCADE
-                )
-                """);
-            s.execute("CREATE INDEX IF NOT EXISTS idx_players_name ON players(LOWER(name))");
-            s.execute("CREATE INDEX IF NOT EXISTS idx_skills_uuid ON player_skills(uuid)");
+    // ---------- PlayerStore high-level API ----------
+
+    @Override
+    public @NotNull PlayerData get(UUID id) {
+        PlayerData hot = cache.get(id);
+        if (hot != null) return hot;
+
+        boolean online = isOnline(id);
+        PlayerData cold = online ? offline.remove(id) : offline.get(id);
+        if (cold != null) {
+            if (!online) return cold;
+            PlayerData prev = cache.putIfAbsent(id, cold); // came back online
+            return (prev != null) ? prev : cold;
         }
+
+        // Prefetched during login; only blocks if the loader hasn't finished yet
+        CompletableFuture<PlayerData> prefetched = hydrating.remove(id);
+        if (prefetched != null) {
+            PlayerData pd = awaitPrefetch(id, prefetched);
+            if (pd != null) {
+                PlayerData prev = cache.putIfAbsent(id, pd);
+                return (prev != null) ? prev : pd;
+            }
+        }
+
+        if (online) return cache.computeIfAbsent(id, key -> hydrate(key, null));
+        return offline.computeIfAbsent(id, key -> hydrate(key, null));
     }
 
-    // ---------- PlayerStore high-level API ----------
+    /** Before the server has started everything is treated as online, as before. */
+    private static boolean isOnline(UUID id) {
+        var server = McRPG.getServer();
+        return server == null || server.getPlayerManager().getPlayer(id) != null;
+    }
+
+    private void writeThrough(PlayerData pd) {
+        if (pd.dirty) save(pd);
+    }
 
+    /**
+     * Start loading a player on the loader thread, typically while they are still in the
+     * configuration phase. A later {@link #get(UUID)} picks up the result.
+     */
     @Override
-    public @NotNull PlayerData get(UUID id) {
-        return cache.computeIfAbsent(id, key -> {
-            ensurePlayerRow(key);                 // creates row if missing; does NOT set a placeholder name
-            PlayerData pd = loadOneFromDb(key);   // may return null only on hard failure
-            return (pd != null) ? pd : new PlayerData(key); // name stays nullable
-        });
+    public void prefetch(UUID id, @Nullable String name) {
+        if (cache.containsKey(id) || offline.contains(id)) return;
+        hydrating.computeIfAbsent(id, key ->
+            CompletableFuture.supplyAsync(() -> hydrate(key, name), loader));
+    }
+
+    @Override
+    public void discardPrefetch(UUID id) {
+        var f = hydrating.remove(id);
+        if (f != null) f.cancel(false);
+    }
+
+    private @Nullable PlayerData awaitPrefetch(UUID id, CompletableFuture<PlayerData> f) {
+        if (f.isDone() && !f.isCompletedExceptionally()) {
+            prefetchHits.increment();
+            return f.join();
+        }
+
+        long start = System.nanoTime();
+        try {
+            PlayerData pd = f.get(hydrationTimeoutMs, TimeUnit.MILLISECONDS);
+            long waited = System.nanoTime() - start;
+            prefetchWaits.increment();
+            prefetchWaitNanos.add(waited);
+            McRPG.getLogger().debug("Waited {} ms for {} to finish loading", waited / 1_000_000L, id);
+            return pd;
+        } catch (TimeoutException e) {
+            prefetchTimeouts.increment();
+            f.cancel(false);
+            McRPG.getLogger().warning("Timed out after {} ms waiting for {} to load; loading inline",
+                hydrationTimeoutMs, id);
+        } catch (ExecutionException | CancellationException e) {
+            McRPG.getLogger().error(e, "Prefetch failed for {}; loading inline", id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private PlayerData hydrate(UUID id, @Nullable String name) {
+        // Peek before reading: anything no longer queued by now is already committed
+        PlayerSnapshot queued = (writer != null) ? writer.peek(id) : null;
+
+        migrateIfPending(id);                   // copy v1 rows first so they aren't shadowed
+        PlayerData pd = loadOneFromDb(id);      // may return null only on hard failure
+        if (pd == null) pd = new PlayerData(id); // name stays nullable
+
+        if (queued != null) pd.restore(queued); // evicted with unwritten changes
+        ensurePlayerRow(id, name);              // creates row if missing; does NOT set a placeholder name
+        return pd;
+    }
+
+    private void migrateIfPending(UUID id) {
+        if (migrator == null || !migrator.isActive()) return;
+        try {
+            synchronized (conn) {
+                SqliteSchema.migrateOne(conn, id);
+            }
+        } catch (SQLException e) {
+            if (migrator.isActive()) McRPG.getLogger().error(e, "Failed to migrate v1 rows for {}", id);
+        }
     }
 
     @Override
@@ -98,6 +286,7 @@ public final class SqlitePlayerStore implements PlayerStore, Closeable {
         if (pd.name == null || !pd.name.equals(name)) {
             McRPG.getLogger().debug("Updating name for {} to {}", pd.id, name);
             pd.setName(name);
+            names.put(pd.id, name);
         }
 
         return pd;
@@ -106,65 +295,163 @@ public final class SqlitePlayerStore implements PlayerStore, Closeable {
     @Override
     public Optional<PlayerData> lookup(String name) {
         if (name == null || name.isBlank()) return Optional.empty();
-        try (PreparedStatement ps = conn.prepareStatement("""
-            SELECT uuid, name FROM players
-            WHERE name = ? COLLATE NOCASE LIMIT 1
-        """)) {
-            ps.setString(1, name);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    UUID id = UUID.fromString(rs.getString(1));
-                    return Optional.of(get(id)); // hydrates cache & skills
+
+        UUID id = names.find(name);
+        return (id != null) ? Optional.of(get(id)) : Optional.empty(); // hydrates cache & skills
+    }
+
+    @Override
+    public int countByPrefix(String prefix) {
+        return names.countByPrefix(prefix == null ? "" : prefix);
+    }
+
+    /** Alphabetical by name; only id and name are filled in. */
+    @Override
+    public List<PlayerData> listByPrefix(String prefix, int offset, int limit) {
+        List<PlayerData> out = new ArrayList<>(Math.max(0, limit));
+        for (NameIndex.Entry e : names.listByPrefix(prefix == null ? "" : prefix, offset, limit)) {
+            out.add(new PlayerData(e.id(), e.name()));
+        }
+        return out;
+    }
+
+    @Override
+    public void scanSkills(SkillRowVisitor visitor) {
+        try {
+            readers.read(r -> {
+                Connection c = r.connection();
+                Set<UUID> migrated = (migrator != null && migrator.isActive()) ? new HashSet<>() : null;
+
+                // One snapshot for both tables, so a chunk the Migrator moves meanwhile is seen exactly once
+                c.setAutoCommit(false);
+                try {
+                    PreparedStatement ps = r.prepare("""
+                        SELECT s.uuid, p.name, s.skill, s.xp
+                        FROM player_skills s JOIN players p ON p.uuid = s.uuid
+                        ORDER BY s.uuid
+                    """);
+                    ps.setFetchSize(1024);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            SkillType skill;
+                            try {
+                                skill = SkillType.fromId(rs.getShort(3));
+                            } catch (IllegalArgumentException e) {
+                                continue;
+                            }
+                            UUID id = SqliteSchema.uuidFrom(rs.getBytes(1));
+                            if (migrated != null) migrated.add(id);
+                            visitor.accept(id, rs.getString(2), skill, rs.getLong(4));
+                        }
+                    }
+
+                    // Players the Migrator hasn't reached yet still live only in the v1 tables
+                    if (migrated != null && SqliteSchema.hasLegacyTables(c))
+                        SqliteSchema.scanLegacySkills(c, migrated, visitor);
+                } finally {
+                    c.commit();
+                    c.setAutoCommit(true);
                 }
-            }
+                return null;
+            });
         } catch (SQLException e) {
-            McRPG.getLogger().error(e, "lookup exact failed for {}", name);
+            McRPG.getLogger().error(e, "Failed to scan skill rows");
         }
-
-        return Optional.empty();
     }
 
     @Override
-    public synchronized int countByPrefix(String prefix) {
-        String like = (prefix == null || prefix.isEmpty()) ? "%" : (prefix + "%");
-        try (PreparedStatement ps = conn.prepareStatement("""
-            SELECT COUNT(*) FROM players
-            WHERE name LIKE ? COLLATE NOCASE
-        """)) {
-            ps.setString(1, like);
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next() ? rs.getInt(1) : 0;
+    public List<ImportRow> importBatch(String source, String cursor, List<ImportRow> rows) {
+        List<ImportRow> out = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            // Loaded players, and evicted ones with a save still queued, would overwrite the import
+            UUID id = row.id();
+            if (!cache.containsKey(id) && !offline.contains(id) && !hydrating.containsKey(id)
+                && (writer == null || writer.peek(id) == null))
+                out.add(row);
+        }
+
+        synchronized (conn) {
+            try {
+                conn.setAutoCommit(false);
+                try (PreparedStatement upPlayers = conn.prepareStatement(
+                    "INSERT INTO players(uuid, name, created_at, updated_at) VALUES(?,?,?,?) " +
+                    "ON CONFLICT(uuid) DO UPDATE SET name = COALESCE(players.name, excluded.name)"
+                );
+                     PreparedStatement upSkill = conn.prepareStatement(
+                         "INSERT INTO player_skills(uuid, skill, xp) VALUES(?,?,?) " +
+                         "ON CONFLICT(uuid, skill) DO UPDATE SET xp = MAX(xp, excluded.xp)"
+                     )
+                ) {
+                    long now = epochSeconds();
+                    for (ImportRow row : out) {
+                        if (migrator != null && migrator.isActive()) SqliteSchema.migrateOne(conn, row.id());
+
+                        byte[] uuid = SqliteSchema.uuidBytes(row.id());
+                        upPlayers.setBytes(1, uuid);
+                        if (row.name() == null || row.name().isBlank())
+                            upPlayers.setNull(2, Types.VARCHAR);
+                        else
+                            upPlayers.setString(2, row.name());
+                        upPlayers.setLong(3, now);
+                        upPlayers.setLong(4, now);
+                        upPlayers.addBatch();
+
+                        for (var e : row.xp().entrySet()) {
+                            upSkill.setBytes(1, uuid);
+                            upSkill.setShort(2, SkillLinks.primaryOf(e.getKey()).id());
+                            upSkill.setLong(3, e.getValue());
+                            upSkill.addBatch();
+                        }
+                    }
+                    upPlayers.executeBatch();
+                    upSkill.executeBatch();
+                    SqliteSchema.setMeta(conn, importKey(source), cursor);
+                    conn.commit();
+
+                    Map<UUID, String> imported = new HashMap<>();
+                    for (ImportRow row : out) imported.put(row.id(), row.name());
+                    names.putAllIfAbsent(imported); // matches COALESCE(players.name, ...)
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Import batch failed", e);
             }
+        }
+        return out;
+    }
+
+    @Override
+    public @Nullable String importCursor(String source) {
+        try {
+            return readers.read(r -> SqliteSchema.getMeta(r.connection(), importKey(source)));
         } catch (SQLException e) {
-            throw new RuntimeException("countByPrefix failed", e);
+            throw new RuntimeException("Failed to read import cursor", e);
         }
     }
 
     @Override
-    public synchronized List<PlayerData> listByPrefix(String prefix, int offset, int limit) {
-        String like = (prefix == null || prefix.isEmpty()) ? "%" : (prefix + "%");
-        List<PlayerData> out = new ArrayList<>(limit);
-        try (PreparedStatement ps = conn.prepareStatement("""
-            SELECT uuid, name FROM players
-            WHERE name LIKE ? COLLATE NOCASE
-            ORDER BY updated_at DESC
-            LIMIT ? OFFSET ?
-        """)) {
-            ps.setString(1, like);
-            ps.setInt(2, limit);
-            ps.setInt(3, offset);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    UUID id = UUID.fromString(rs.getString(1));
-                    String nm = rs.getString(2);
-                    PlayerData pd = new PlayerData(id, nm);
-                    out.add(pd);
-                }
+    public void clearImportCursor(String source) {
+        synchronized (conn) {
+            try {
+                SqliteSchema.setMeta(conn, importKey(source), null);
+            } catch (SQLException e) {
+                McRPG.getLogger().error(e, "Failed to clear import cursor for {}", source);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("listByPrefix failed", e);
         }
-        return out;
+    }
+
+    private static String importKey(String source) {
+        return "import:" + source;
+    }
+
+    /** Append a skill's new total to the XP journal, if journaling is enabled. */
+    @Override
+    public void journal(PlayerData pd, SkillType skill, long total) {
+        if (journal != null) journal.append(pd.id, skill, total);
     }
 
     /**
@@ -178,149 +465,189 @@ public final class SqlitePlayerStore implements PlayerStore, Closeable {
 
     @Override
     public void saveAll() {
-        try {
-            conn.setAutoCommit(false);
-            try (PreparedStatement upPlayers = conn.prepareStatement(
-                "INSERT INTO players(uuid, name, created_at, updated_at) VALUES(?,?,?,?) " +
-                "ON CONFLICT(uuid) DO UPDATE SET name=excluded.name, updated_at=excluded.updated_at"
-            );
-             PreparedStatement upSkill = conn.prepareStatement(
-                 "INSERT INTO player_skills(uuid, skill, xp) VALUES(?,?,?) " +
-                 "ON CONFLICT(uuid, skill) DO UPDATE SET xp=excluded.xp"
-             )
-            ) {
-                long now = epochSeconds();
-                for (PlayerData pd : cache.values()) {
-                    if (!pd.dirty) continue;
-                    upPlayers.setString(1, pd.id.toString());
-                    upPlayers.setString(2, pd.getName());
-                    upPlayers.setLong(3, now);
-                    upPlayers.setLong(4, now);
-                    upPlayers.addBatch();
-
-                    for (var e : pd.xp.entrySet()) {
-                        upSkill.setString(1, pd.id.toString());
-                        upSkill.setString(2, e.getKey().name());
-                        upSkill.setLong(3, e.getValue());
-                        upSkill.addBatch();
-                    }
-                    pd.dirty = false;
+        List<PlayerSnapshot> snaps = new ArrayList<>();
+        for (PlayerData pd : cache.values()) {
+            if (pd.dirty) snaps.add(pd.snapshot());
+        }
+        for (PlayerData pd : offline.values()) {
+            if (pd.dirty) snaps.add(pd.snapshot());
+        }
+
+        if (writer != null) {
+            // Tick thread work ends here; the writer thread does the SQL (and releases the journal).
+            // Submit before sealing: once the writer sees the seal, these must already be pending.
+            for (PlayerSnapshot snap : snaps) writer.submit(snap);
+            if (journal != null) journal.seal(); // the journal so far is covered by these snapshots
+            writer.wake();
+        } else {
+            long sealed = (journal != null) ? journal.seal() : 0L;
+            try {
+                synchronized (conn) {
+                    writeSnapshots(conn, snaps);
+                }
+                // The journal thread may not have closed the segment yet; a later save picks it up
+                if (journal != null) journal.release(Math.min(sealed, journal.sealedThrough()));
+            } catch (SQLException e) {
+                McRPG.getLogger().error(e, "Failed to saveAll players");
+                for (PlayerSnapshot snap : snaps) {
+                    PlayerData pd = cache.get(snap.id());
+                    if (pd == null) pd = offline.get(snap.id());
+                    if (pd != null) pd.requeue(snap);
                 }
-                upPlayers.executeBatch();
-                upSkill.executeBatch();
-                conn.commit();
-            } catch (SQLException sqle) {
-                conn.rollback();
-                throw sqle;
-            } finally {
-                conn.setAutoCommit(true);
             }
-        } catch (SQLException e) {
-            McRPG.getLogger().error(e, "Failed to saveAll players");
         }
 
-        // Cache eviction of offline players
+        // Demote players who logged off to the offline tier, then age that tier out
         var pm = McRPG.getServer().getPlayerManager();
-        cache.entrySet().removeIf(e -> pm.getPlayer(e.getKey()) == null);
+        cache.entrySet().removeIf(e -> {
+            if (pm.getPlayer(e.getKey()) != null) return false;
+            offline.put(e.getValue());
+            return true;
+        });
+        offline.expire();
+
+        McRPG.getLogger().debug("Cached players: {} online, {} offline", cache.size(), offline.size());
+        McRPG.getLogger().debug("Prefetch: {} ready, {} waited ({} ms total), {} timed out, {} in flight",
+            prefetchHits.sum(), prefetchWaits.sum(), prefetchWaitNanos.sum() / 1_000_000L,
+            prefetchTimeouts.sum(), hydrating.size());
     }
 
     // ---------- Low-level store ops ----------
 
     @Override
     public void save(PlayerData pd) {
+        PlayerSnapshot snap = pd.snapshot();
+        if (writer != null) {
+            writer.submit(snap);
+            writer.wake();
+            return;
+        }
+
         try {
-            conn.setAutoCommit(false);
+            synchronized (conn) {
+                writeSnapshots(conn, List.of(snap));
+            }
+        } catch (SQLException e) {
+            McRPG.getLogger().error(e, "Failed to save player {}", pd.id);
+            pd.requeue(snap);
+        }
+    }
+
+    /**
+     * Upsert the given snapshots in a single transaction; only their changed skill rows are written.
+     * Used by both the sync path and the writer thread.
+     */
+    static void writeSnapshots(Connection c, Collection<PlayerSnapshot> snaps) throws SQLException {
+        if (snaps.isEmpty()) return;
+
+        c.setAutoCommit(false);
+        try (PreparedStatement upPlayers = c.prepareStatement(
+            "INSERT INTO players(uuid, name, created_at, updated_at) VALUES(?,?,?,?) " +
+            "ON CONFLICT(uuid) DO UPDATE SET " +
+            "  name = COALESCE(excluded.name, players.name), " +
+            "  updated_at=excluded.updated_at"
+        );
+             PreparedStatement upSkill = c.prepareStatement(
+                 "INSERT INTO player_skills(uuid, skill, xp) VALUES(?,?,?) " +
+                 "ON CONFLICT(uuid, skill) DO UPDATE SET xp=excluded.xp"
+             )
+        ) {
             long now = epochSeconds();
-            try (PreparedStatement upPlayer = conn.prepareStatement(
-                "INSERT INTO players(uuid, name, created_at, updated_at) VALUES(?,?,?,?) " +
-                "ON CONFLICT(uuid) DO UPDATE SET name=excluded.name, updated_at=excluded.updated_at"
-            );
-                 PreparedStatement upSkill = conn.prepareStatement(
-                     "INSERT INTO player_skills(uuid, skill, xp) VALUES(?,?,?) " +
-                     "ON CONFLICT(uuid, skill) DO UPDATE SET xp=excluded.xp"
-                 )
-            ) {
-                upPlayer.setString(1, pd.id.toString());
-                upPlayer.setString(2, pd.getName());
-                upPlayer.setLong(3, now);
-                upPlayer.setLong(4, now);
-                upPlayer.executeUpdate();
-
-                for (var e : pd.xp.entrySet()) {
-                    upSkill.setString(1, pd.id.toString());
-                    upSkill.setString(2, e.getKey().name());
+            for (PlayerSnapshot snap : snaps) {
+                byte[] uuid = SqliteSchema.uuidBytes(snap.id());
+                upPlayers.setBytes(1, uuid);
+                if (snap.name() == null || snap.name().isBlank())
+                    upPlayers.setNull(2, Types.VARCHAR);
+                else
+                    upPlayers.setString(2, snap.name());
+                upPlayers.setLong(3, now);
+                upPlayers.setLong(4, now);
+                upPlayers.addBatch();
+
+                for (var e : snap.xp().entrySet()) {
+                    upSkill.setBytes(1, uuid);
+                    upSkill.setShort(2, e.getKey().id());
                     upSkill.setLong(3, e.getValue());
                     upSkill.addBatch();
                 }
-                upSkill.executeBatch();
-                conn.commit();
-                pd.dirty = false;
-            } catch (SQLException sqle) {
-                conn.rollback();
-                throw sqle;
-            } finally {
-                conn.setAutoCommit(true);
             }
-        } catch (SQLException e) {
-            // log if available
+            upPlayers.executeBatch();
+            upSkill.executeBatch();
+            c.commit();
+        } catch (SQLException sqle) {
+            c.rollback();
+            throw sqle;
+        } finally {
+            c.setAutoCommit(true);
         }
     }
 
-    private PlayerData loadOneFromDb(UUID id) {
-        // Load base player row first
-        String name = null;
-        try (PreparedStatement ps = conn.prepareStatement(
-            "SELECT name FROM players WHERE uuid=?"
-        )) {
-            ps.setString(1, id.toString());
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) name = rs.getString(1);
-            }
-        } catch (SQLException e) {
-            McRPG.getLogger().error(e, "Failed to load player row for {}", id);
-            return null;
-        }
+    private @Nullable PlayerData loadOneFromDb(UUID id) {
+        byte[] key = SqliteSchema.uuidBytes(id);
+        try {
+            return readers.read(r -> {
+                // Load base player row first
+                String name = null;
+                PreparedStatement ps = r.prepare("SELECT name FROM players WHERE uuid=?");
+                ps.setBytes(1, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) name = rs.getString(1);
+                }
 
-        PlayerData pd = new PlayerData(id, name); // allow null name
-        // Load skills
-        try (PreparedStatement ps = conn.prepareStatement(
-            "SELECT skill, xp FROM player_skills WHERE uuid=?"
-        )) {
-            ps.setString(1, id.toString());
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    try {
-                        SkillType skill = SkillType.valueOf(rs.getString(1));
-                        long total = rs.getLong(2);
-                        pd.xp.put(skill, total);
-                    } catch (IllegalArgumentException ex) {
-                        McRPG.getLogger().warning("Failed to load skill for {}: invalid skill {}",
-                            id, rs.getString(1));
+                PlayerData pd = new PlayerData(id, name); // allow null name
+                // Load skills
+                ps = r.prepare("SELECT skill, xp FROM player_skills WHERE uuid=?");
+                ps.setBytes(1, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        try {
+                            SkillType skill = SkillType.fromId(rs.getShort(1));
+                            long total = rs.getLong(2);
+                            pd.setXp(skill, total);
+                        } catch (IllegalArgumentException ex) {
+                            McRPG.getLogger().warning("Failed to load skill for {}: invalid skill {}",
+                                id, rs.getString(1));
+                        }
                     }
                 }
-            }
+
+                pd.dirty = false;
+                return pd;
+            });
         } catch (SQLException e) {
-            McRPG.getLogger().error(e, "Failed to load skills for player {}", id);
+            McRPG.getLogger().error(e, "Failed to load player {}", id);
+            return null;
         }
-
-        pd.dirty = false;
-        return pd;
     }
 
     /**
      * Ensure a players row exists. If absent, insert with given name or UUID string.
      * Update updated_at; update name if provided and different.
+     * With write-behind this is queued like any other save.
      */
     @Override
     public void ensurePlayerRow(UUID id, @Nullable String name) {
+        names.put(id, name);
+        if (writer != null) {
+            writer.submit(new PlayerSnapshot(id, name, Map.of(), 0L));
+            writer.wake();
+            return;
+        }
+
+        synchronized (conn) {
+            ensurePlayerRow(conn, id, name);
+        }
+    }
+
+    private static void ensurePlayerRow(Connection c, UUID id, @Nullable String name) {
         long now = epochSeconds();
-        try (PreparedStatement ps = conn.prepareStatement(
+        try (PreparedStatement ps = c.prepareStatement(
             "INSERT INTO players(uuid, name, created_at, updated_at) VALUES(?,?,?,?) " +
             "ON CONFLICT(uuid) DO UPDATE SET " +
             "  name = COALESCE(excluded.name, players.name), " +
             "  updated_at=excluded.updated_at"
         )) {
-            ps.setString(1, id.toString());
+            ps.setBytes(1, SqliteSchema.uuidBytes(id));
             if (name == null || name.isBlank())
                 ps.setNull(2, Types.VARCHAR);
             else
@@ -334,10 +661,6 @@ public final class SqlitePlayerStore implements PlayerStore, Closeable {
         }
     }
 
-    private void ensurePlayerRow(UUID id) {
-        ensurePlayerRow(id, null);
-    }
-
     // ---------- Utilities ----------
 
     private static long epochSeconds() {
@@ -346,6 +669,30 @@ public final class SqlitePlayerStore implements PlayerStore, Closeable {
 
     @Override
     public void close() {
-        try { if (conn != null) conn.close(); } catch (SQLException ignored) {}
+        if (migrator != null) migrator.stop(1000L); // resumes from its cursor next start
+
+        if (writer != null) {
+            int secs = ConfigManager.getGeneralConfig().storage.shutdownFlushSeconds;
+            writer.shutdown(TimeUnit.SECONDS.toMillis(Math.max(0, secs)));
+        }
+
+        if (journal != null) {
+            journal.close();
+            // Everything sealed was committed; whatever is left replays harmlessly next start
+            if (writer == null || writer.pendingCount() == 0) journal.release(journal.sealedThrough());
+        }
+
+        loader.shutdownNow();
+        hydrating.clear();
+        readers.close();
+
+        synchronized (conn) {
+            try (Statement s = conn.createStatement()) {
+                s.execute("PRAGMA optimize");
+            } catch (SQLException e) {
+                McRPG.getLogger().debug(e, "PRAGMA optimize failed");
+            }
+            try { conn.close(); } catch (SQLException ignored) {}
+        }
     }
 }
@@ -0,0 +1,112 @@
+package com.github.beemerwt.mcrpg.data;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small pool of read-only SQLite connections for SqlitePlayerStore.
+ * - Under WAL, these read concurrently with the writer connection.
+ * - Each connection caches its prepared statements by SQL text; callers must not close them.
+ */
+final class SqliteReaderPool implements Closeable {
+    private static final long BORROW_TIMEOUT_MS = 5_000L;
+
+    @FunctionalInterface
+    interface ReadFn<T> {
+        T apply(Reader r) throws SQLException;
+    }
+
+    static final class Reader {
+        private final Connection conn;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private Reader(Connection conn) {
+            this.conn = conn;
+        }
+
+        /** Cached statement for this SQL, with parameters cleared. Do not close it. */
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps == null) {
+                ps = conn.prepareStatement(sql);
+                statements.put(sql, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+
+        Connection connection() {
+            return conn;
+        }
+
+        private void close() {
+            for (PreparedStatement ps : statements.values()) {
+                try { ps.close(); } catch (SQLException ignored) {}
+            }
+            statements.clear();
+            try { conn.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    private final List<Reader> all = new ArrayList<>();
+    private final BlockingQueue<Reader> idle;
+
+    SqliteReaderPool(String url, int size, int cacheKb) throws SQLException {
+        int n = Math.max(1, size);
+        this.idle = new ArrayBlockingQueue<>(n);
+
+        Properties props = new Properties();
+        props.setProperty("open_mode", "1"); // SQLITE_OPEN_READONLY
+
+        for (int i = 0; i < n; i++) {
+            Connection c = DriverManager.getConnection(url, props);
+            try (Statement s = c.createStatement()) {
+                s.execute("PRAGMA query_only=ON");
+                s.execute("PRAGMA temp_store=MEMORY");
+                s.execute("PRAGMA busy_timeout=1000");
+                s.execute("PRAGMA cache_size=-" + cacheKb);
+                s.execute("PRAGMA mmap_size=30000000000"); // 30GB hint; SQLite caps internally
+            }
+            Reader r = new Reader(c);
+            all.add(r);
+            idle.add(r);
+        }
+    }
+
+    <T> T read(ReadFn<T> fn) throws SQLException {
+        Reader r;
+        try {
+            r = idle.poll(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a reader connection", e);
+        }
+        if (r == null) throw new SQLException("No reader connection available");
+
+        try {
+            return fn.apply(r);
+        } finally {
+            idle.offer(r);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Reader r : all) r.close();
+        all.clear();
+        idle.clear();
+    }
+}
@@ -0,0 +1,453 @@
+package com.github.beemerwt.mcrpg.data;
+
+import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.util.AsyncIO;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Schema management for players.db.
+ *
+ * v1 (user_version 0):
+ *   players(uuid TEXT PRIMARY KEY, ...), player_skills(uuid TEXT, skill <SkillType.name()>, xp)
+ *   plus idx_players_name ON players(LOWER(name)) and idx_skills_uuid.
+ *
+ * v2 (user_version 2):
+ *   players(uuid BLOB PRIMARY KEY, name, created_at, updated_at) WITHOUT ROWID
+ *   player_skills(uuid BLOB, skill INTEGER <SkillType.id()>, xp, PRIMARY KEY(uuid, skill)) WITHOUT ROWID
+ *   No secondary indexes: the composite PK covers uuid lookups and NameIndex serves names from memory.
+ *
+ * Upgrading renames the v1 tables to *_v1 and creates empty v2 tables in one transaction.
+ * A {@link Migrator} then copies the old rows in chunks on a background thread while the
+ * server runs; players needed before their chunk arrives are copied on demand by {@link #migrateOne}.
+ * The file is VACUUMed on the first start after the migration finishes.
+ */
+final class SqliteSchema {
+    static final int VERSION = 2;
+
+    private static final int CHUNK_PLAYERS = 2000;
+    private static final long CHUNK_PAUSE_MS = 50L;
+    private static final long LOCKED_RETRY_MS = 250L;
+
+    private static final String KEY_CURSOR = "migrate_v1_cursor";
+    private static final String KEY_VACUUM = "vacuum_pending";
+
+    private SqliteSchema() {}
+
+    // ---------- Setup ----------
+
+    static void createOrUpgrade(Connection c) throws SQLException {
+        int version = userVersion(c);
+        boolean legacy = version < VERSION && tableExists(c, "players");
+
+        c.setAutoCommit(false);
+        try (Statement s = c.createStatement()) {
+            if (legacy) {
+                McRPG.getLogger().info("Upgrading players.db to schema v{}; old rows will be migrated in the background", VERSION);
+                s.execute("DROP INDEX IF EXISTS idx_skills_uuid");
+                s.execute("DROP INDEX IF EXISTS idx_players_name");
+                s.execute("ALTER TABLE player_skills RENAME TO player_skills_v1");
+                s.execute("ALTER TABLE players RENAME TO players_v1");
+            }
+
+            s.execute("""
+                CREATE TABLE IF NOT EXISTS players(
+                  uuid BLOB PRIMARY KEY,
+                  name TEXT,
+                  created_at INTEGER,
+                  updated_at INTEGER
+                ) WITHOUT ROWID
+                """);
+            s.execute("""
+                CREATE TABLE IF NOT EXISTS player_skills(
+                  uuid BLOB NOT NULL,
+                  skill INTEGER NOT NULL,
+                  xp INTEGER NOT NULL,
+                  PRIMARY KEY(uuid, skill),
+                  FOREIGN KEY(uuid) REFERENCES players(uuid) ON DELETE CASCADE
+                ) WITHOUT ROWID
+                """);
+            s.execute("DROP INDEX IF EXISTS idx_players_name"); // NameIndex answers name lookups in memory
+            s.execute("""
+                CREATE TABLE IF NOT EXISTS schema_meta(
+                  key TEXT PRIMARY KEY,
+                  value TEXT
+                ) WITHOUT ROWID
+                """);
+            s.execute("PRAGMA user_version = " + VERSION);
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(true);
+        }
+
+        if (!hasLegacyTables(c) && getMeta(c, KEY_VACUUM) != null) {
+            McRPG.getLogger().info("Compacting players.db after schema migration...");
+            long start = System.nanoTime();
+            try (Statement s = c.createStatement()) {
+                s.execute("VACUUM");
+            }
+            setMeta(c, KEY_VACUUM, null);
+            McRPG.getLogger().info("Compacted players.db in {} ms", (System.nanoTime() - start) / 1_000_000L);
+        }
+    }
+
+    static boolean hasLegacyTables(Connection c) throws SQLException {
+        return tableExists(c, "players_v1");
+    }
+
+    // ---------- Encoding ----------
+
+    static byte[] uuidBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array();
+    }
+
+    static UUID uuidFrom(byte[] b) {
+        ByteBuffer buf = ByteBuffer.wrap(b);
+        return new UUID(buf.getLong(), buf.getLong());
+    }
+
+    /** v1 stored SkillType.name() in the INTEGER column; tolerate numeric ids too. */
+    private static @Nullable SkillType legacySkill(@Nullable String raw) {
+        if (raw == null) return null;
+        var named = SkillType.parseSkill(raw);
+        if (named.isPresent()) return named.get();
+        try {
+            return SkillType.fromId(Short.parseShort(raw.trim()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // ---------- On-demand migration ----------
+
+    /**
+     * Copy one player from the v1 tables if they haven't been migrated yet.
+     * Rows that already exist in v2 win, so this never overwrites newer data.
+     */
+    static void migrateOne(Connection c, UUID id) throws SQLException {
+        List<V1Player> players = new ArrayList<>(1);
+        try (PreparedStatement ps = c.prepareStatement(
+            "SELECT uuid, name, created_at, updated_at FROM players_v1 WHERE uuid = ?"
+        )) {
+            ps.setString(1, id.toString());
+            readPlayers(ps, players);
+        }
+        if (players.isEmpty()) return;
+
+        List<V1Skill> skills = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(
+            "SELECT uuid, skill, xp FROM player_skills_v1 WHERE uuid = ?"
+        )) {
+            ps.setString(1, id.toString());
+            readSkills(ps, skills);
+        }
+
+        writeChunk(c, players, skills, null);
+    }
+
+    /** Add the names of players that haven't been migrated yet. */
+    static void legacyNames(Connection c, Map<UUID, String> out) throws SQLException {
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("SELECT uuid, name FROM players_v1 WHERE name IS NOT NULL")) {
+            while (rs.next()) {
+                try {
+                    out.put(UUID.fromString(rs.getString(1)), rs.getString(2));
+                } catch (IllegalArgumentException e) {
+                    // malformed v1 uuid
+                }
+            }
+        }
+    }
+
+    /** Stream the skill rows of players not in {@code migrated}, grouped by player. */
+    static void scanLegacySkills(Connection c, Set<UUID> migrated, PlayerStore.SkillRowVisitor visitor)
+        throws SQLException {
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("""
+                 SELECT s.uuid, p.name, s.skill, s.xp
+                 FROM player_skills_v1 s JOIN players_v1 p ON p.uuid = s.uuid
+                 ORDER BY s.uuid
+                 """)) {
+            while (rs.next()) {
+                SkillType skill = legacySkill(rs.getString(3));
+                if (skill == null) continue;
+
+                UUID id;
+                try {
+                    id = UUID.fromString(rs.getString(1));
+                } catch (IllegalArgumentException e) {
+                    continue; // malformed v1 uuid
+                }
+                if (!migrated.contains(id)) visitor.accept(id, rs.getString(2), skill, rs.getLong(4));
+            }
+        }
+    }
+
+    // ---------- Background migration ----------
+
+    static Migrator startMigration(Connection c) {
+        Migrator m = new Migrator(c);
+        Thread t = AsyncIO.daemonFactory("McRPG-Migrator").newThread(m);
+        m.thread = t;
+        t.start();
+        return m;
+    }
+
+    static final class Migrator implements Runnable {
+        private final Connection conn;
+        private volatile boolean active = true;
+        private volatile boolean stopRequested = false;
+        private Thread thread;
+
+        private Migrator(Connection conn) {
+            this.conn = conn;
+        }
+
+        /** True until the v1 tables have been fully copied and dropped. */
+        boolean isActive() {
+            return active;
+        }
+
+        void stop(long timeoutMs) {
+            stopRequested = true;
+            try {
+                if (thread != null) thread.join(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try { conn.close(); } catch (SQLException ignored) {}
+        }
+
+        @Override
+        public void run() {
+            try {
+                long total = countLegacy();
+                long done = 0L;
+                String cursor = Optional.ofNullable(getMeta(conn, KEY_CURSOR)).orElse("");
+                if (!cursor.isEmpty()) McRPG.getLogger().info("Resuming players.db migration after {}", cursor);
+
+                while (!stopRequested) {
+                    List<V1Player> players = new ArrayList<>(CHUNK_PLAYERS);
+                    try (PreparedStatement ps = conn.prepareStatement(
+                        "SELECT uuid, name, created_at, updated_at FROM players_v1 WHERE uuid > ? ORDER BY uuid LIMIT ?"
+                    )) {
+                        ps.setString(1, cursor);
+                        ps.setInt(2, CHUNK_PLAYERS);
+                        readPlayers(ps, players);
+                    }
+                    if (players.isEmpty()) break;
+
+                    String last = players.getLast().rawId;
+                    List<V1Skill> skills = new ArrayList<>(players.size() * SkillType.values().length);
+                    try (PreparedStatement ps = conn.prepareStatement(
+                        "SELECT uuid, skill, xp FROM player_skills_v1 WHERE uuid > ? AND uuid <= ?"
+                    )) {
+                        ps.setString(1, cursor);
+                        ps.setString(2, last);
+                        readSkills(ps, skills);
+                    }
+
+                    if (!writeChunkWithRetry(players, skills, last)) return;
+                    cursor = last;
+                    done += players.size();
+                    McRPG.getLogger().info("Migrating players.db: {}/{} players", done, total);
+
+                    Thread.sleep(CHUNK_PAUSE_MS); // leave room for the live writers
+                }
+
+                if (stopRequested) {
+                    McRPG.getLogger().info("players.db migration paused at {}; it will resume on next start", cursor);
+                    return;
+                }
+
+                finish();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (SQLException e) {
+                McRPG.getLogger().error(e, "players.db migration failed; it will resume on next start");
+            }
+        }
+
+        private long countLegacy() throws SQLException {
+            try (Statement s = conn.createStatement();
+                 ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM players_v1")) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+
+        private boolean writeChunkWithRetry(List<V1Player> players, List<V1Skill> skills, String cursor)
+            throws InterruptedException {
+            while (!stopRequested) {
+                try {
+                    writeChunk(conn, players, skills, cursor);
+                    return true;
+                } catch (SQLException e) {
+                    int code = e.getErrorCode() & 0xFF;
+                    if (code != 5 && code != 6) { // SQLITE_BUSY / SQLITE_LOCKED
+                        McRPG.getLogger().error(e, "players.db migration chunk failed; it will resume on next start");
+                        return false;
+                    }
+                    Thread.sleep(LOCKED_RETRY_MS);
+                }
+            }
+            return false;
+        }
+
+        private void finish() throws SQLException {
+            conn.setAutoCommit(false);
+            try (Statement s = conn.createStatement()) {
+                s.execute("DROP TABLE player_skills_v1");
+                s.execute("DROP TABLE players_v1");
+                s.execute("DELETE FROM schema_meta WHERE key = '" + KEY_CURSOR + "'");
+                s.execute("INSERT OR REPLACE INTO schema_meta(key, value) VALUES('" + KEY_VACUUM + "', '1')");
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            active = false;
+            McRPG.getLogger().info("players.db migration to schema v{} complete; the file will be compacted on next start", VERSION);
+        }
+    }
+
+    // ---------- Shared copy helpers ----------
+
+    private record V1Player(String rawId, UUID id, @Nullable String name, long createdAt, long updatedAt) {}
+    private record V1Skill(UUID id, SkillType skill, long xp) {}
+
+    private static void readPlayers(PreparedStatement ps, List<V1Player> out) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String raw = rs.getString(1);
+                try {
+                    out.add(new V1Player(raw, UUID.fromString(raw), rs.getString(2), rs.getLong(3), rs.getLong(4)));
+                } catch (IllegalArgumentException e) {
+                    McRPG.getLogger().warning("Skipping v1 player with invalid uuid {}", raw);
+                }
+            }
+        }
+    }
+
+    private static void readSkills(PreparedStatement ps, List<V1Skill> out) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                SkillType skill = legacySkill(rs.getString(2));
+                if (skill == null) {
+                    McRPG.getLogger().warning("Skipping v1 skill row for {}: invalid skill {}",
+                        rs.getString(1), rs.getString(2));
+                    continue;
+                }
+                try {
+                    out.add(new V1Skill(UUID.fromString(rs.getString(1)), skill, rs.getLong(3)));
+                } catch (IllegalArgumentException ignored) {
+                    // player row was skipped too
+                }
+            }
+        }
+    }
+
+    private static void writeChunk(Connection c, List<V1Player> players, List<V1Skill> skills,
+                                   @Nullable String cursor) throws SQLException {
+        c.setAutoCommit(false);
+        try (PreparedStatement insPlayer = c.prepareStatement(
+            "INSERT OR IGNORE INTO players(uuid, name, created_at, updated_at) VALUES(?,?,?,?)");
+             PreparedStatement insSkill = c.prepareStatement(
+                 "INSERT OR IGNORE INTO player_skills(uuid, skill, xp) " +
+                 "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM players WHERE uuid = ?)")
+        ) {
+            long now = Instant.now().getEpochSecond();
+            for (V1Player p : players) {
+                insPlayer.setBytes(1, uuidBytes(p.id));
+                if (p.name == null) insPlayer.setNull(2, Types.VARCHAR);
+                else insPlayer.setString(2, p.name);
+                insPlayer.setLong(3, p.createdAt > 0 ? p.createdAt : now);
+                insPlayer.setLong(4, p.updatedAt > 0 ? p.updatedAt : now);
+                insPlayer.addBatch();
+            }
+            insPlayer.executeBatch();
+
+            for (V1Skill s : skills) {
+                byte[] key = uuidBytes(s.id);
+                insSkill.setBytes(1, key);
+                insSkill.setShort(2, s.skill.id());
+                insSkill.setLong(3, s.xp);
+                insSkill.setBytes(4, key);
+                insSkill.addBatch();
+            }
+            insSkill.executeBatch();
+
+            if (cursor != null) setMeta(c, KEY_CURSOR, cursor);
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(true);
+        }
+    }
+
+    // ---------- Metadata ----------
+
+    private static int userVersion(Connection c) throws SQLException {
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static boolean tableExists(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+            "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?"
+        )) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    static @Nullable String getMeta(Connection c, String key) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT value FROM schema_meta WHERE key = ?")) {
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    static void setMeta(Connection c, String key, @Nullable String value) throws SQLException {
+        if (value == null) {
+            try (PreparedStatement ps = c.prepareStatement("DELETE FROM schema_meta WHERE key = ?")) {
+                ps.setString(1, key);
+                ps.executeUpdate();
+            }
+            return;
+        }
+
+        try (PreparedStatement ps = c.prepareStatement(
+            "INSERT INTO schema_meta(key, value) VALUES(?, ?) ON CONFLICT(key) DO UPDATE SET value = excluded.value"
+        )) {
+            ps.setString(1, key);
+            ps.setString(2, value);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.beemerwt.mcrpg.data;
+
+import com.github.beemerwt.mcrpg.McRPG;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind queue for SqlitePlayerStore, drained by a single dedicated thread.
+ * Shares the store's writer connection; every use of it is synchronized on the connection.
+ * - The server thread only submits immutable snapshots; a newer snapshot is merged over a queued older one.
+ * - Snapshots stay in {@link #pending} until their transaction commits, so a player re-hydrated
+ *   in the meantime can overlay them instead of reading stale rows.
+ * - Everything pending is written in as few transactions as possible (group commit).
+ * - SQLITE_BUSY / SQLITE_LOCKED is retried with backoff; other failures keep the batch queued.
+ * - Once the queue is empty, sealed {@link XpJournal} segments are released: the store submits
+ *   the snapshots covering a segment before sealing it.
+ */
+final class SqliteWriteBehind {
+    private static final int MAX_BATCH = 1024;
+    private static final long RETRY_DELAY_MS = 5_000L;
+    private static final long BACKOFF_BASE_MS = 25L;
+    private static final long BACKOFF_MAX_MS = 1_000L;
+
+    // Primary SQLite result codes
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    private final Connection conn;
+    private final int lockedRetries;
+    private final @Nullable XpJournal journal;
+    private long released; // writer thread only
+    private final Map<UUID, PlayerSnapshot> pending = new ConcurrentHashMap<>();
+
+    private final Object signal = new Object();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private boolean wakeup = false; // guarded by signal
+
+    SqliteWriteBehind(Connection conn, int lockedRetries, @Nullable XpJournal journal) {
+        this.conn = conn;
+        this.lockedRetries = Math.max(0, lockedRetries);
+        this.journal = journal;
+        this.thread = new Thread(this::run, "McRPG-Writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // ---------- Producer side (server thread) ----------
+
+    void submit(PlayerSnapshot snap) {
+        pending.merge(snap.id(), snap, (queued, fresh) ->
+            fresh.isNewerThan(queued) ? fresh.mergedOver(queued) : queued.mergedOver(fresh));
+    }
+
+    void wake() {
+        synchronized (signal) {
+            wakeup = true;
+            signal.notifyAll();
+        }
+    }
+
+    /** Latest snapshot for this player that has not been committed yet, if any. */
+    @Nullable PlayerSnapshot peek(UUID id) {
+        return pending.get(id);
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Wake the writer and wait until the queue is empty or the timeout passes.
+     * @return true if everything queued was committed
+     */
+    boolean flush(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + Math.max(0L, timeoutMs);
+        wake();
+        synchronized (signal) {
+            while (!pending.isEmpty()) {
+                long remain = deadline - System.currentTimeMillis();
+                if (remain <= 0 || !thread.isAlive()) return false;
+                try {
+                    signal.wait(remain);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Bounded flush, then stop the thread. The connection belongs to the store and stays open. */
+    void shutdown(long timeoutMs) {
+        long start = System.currentTimeMillis();
+        if (!flush(timeoutMs)) {
+            McRPG.getLogger().error("Timed out flushing player saves; {} player(s) were not written", pending.size());
+        }
+
+        running = false;
+        wake();
+        try {
+            long remain = Math.max(1L, timeoutMs - (System.currentTimeMillis() - start));
+            thread.join(remain);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------- Writer thread ----------
+
+    private void run() {
+        boolean lastFailed = false;
+        while (running) {
+            synchronized (signal) {
+                try {
+                    // Sleep until woken; after a failure, retry on our own after a delay
+                    if (!wakeup) signal.wait(lastFailed ? RETRY_DELAY_MS : 0L);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                wakeup = false;
+            }
+
+            lastFailed = !drain();
+            if (!lastFailed) releaseJournal();
+
+            synchronized (signal) {
+                signal.notifyAll(); // let flush() re-check
+            }
+        }
+    }
+
+    /** Write everything currently pending. Returns false if a batch could not be committed. */
+    private boolean drain() {
+        while (!pending.isEmpty()) {
+            List<PlayerSnapshot> batch = new ArrayList<>(Math.min(pending.size(), MAX_BATCH));
+            for (PlayerSnapshot snap : pending.values()) {
+                batch.add(snap);
+                if (batch.size() >= MAX_BATCH) break;
+            }
+
+            if (!writeWithRetry(batch)) return false;
+
+            // Only drop what we wrote; a newer snapshot queued meanwhile stays pending
+            for (PlayerSnapshot snap : batch) pending.remove(snap.id(), snap);
+        }
+        return true;
+    }
+
+    private void releaseJournal() {
+        if (journal == null) return;
+
+        // Read the seal first: the snapshots covering it were submitted before the seal,
+        // so they are either still pending or committed
+        long sealed = journal.sealedThrough();
+        if (sealed > released && pending.isEmpty()) {
+            journal.release(sealed);
+            released = sealed;
+        }
+    }
+
+    private boolean writeWithRetry(List<PlayerSnapshot> batch) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                synchronized (conn) {
+                    SqlitePlayerStore.writeSnapshots(conn, batch);
+                }
+                return true;
+            } catch (SQLException e) {
+                if (isLocked(e) && attempt < lockedRetries) {
+                    long backoff = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << attempt);
+                    McRPG.getLogger().debug("Database locked while saving {} player(s); retry {} in {} ms",
+                        batch.size(), attempt + 1, backoff);
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                    continue;
+                }
+
+                McRPG.getLogger().error(e, "Failed to write {} player(s); keeping them queued", batch.size());
+                return false;
+            }
+        }
+    }
+
+    private static boolean isLocked(SQLException e) {
+        int code = e.getErrorCode() & 0xFF; // strip extended result code
+        return code == SQLITE_BUSY || code == SQLITE_LOCKED;
+    }
+}
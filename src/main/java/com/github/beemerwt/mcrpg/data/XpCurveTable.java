@@ -0,0 +1,121 @@
+package com.github.beemerwt.mcrpg.data;
+
+import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.config.GeneralConfig;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An XP curve compiled into a cumulative table: {@code cumulative[L]} is the total XP needed to reach level L.
+ * - Built once per config load, so level math is array loads and a binary search, and exact.
+ * - Every curve type is just a per-level cost; they all compile the same way.
+ * - Totals saturate at Long.MAX_VALUE instead of overflowing.
+ * - Each compile gets a new epoch; cached player levels computed under another epoch are stale.
+ */
+public final class XpCurveTable {
+    private static final AtomicInteger EPOCHS = new AtomicInteger();
+
+    private enum Kind { LINEAR, QUAD, EXPONENTIAL, TABLE }
+
+    private final Kind kind;
+    private final GeneralConfig.XpCurve curve;
+    private final long[] custom;
+    private final long[] cumulative;
+    final int epoch = EPOCHS.incrementAndGet();
+
+    private XpCurveTable(GeneralConfig source) {
+        this.curve = source.xpCurve;
+        this.kind = kindOf(curve);
+        this.custom = (kind == Kind.TABLE) ? toArray(curve.table) : new long[0];
+
+        int max = Math.max(0, source.maxLevel);
+        this.cumulative = new long[max + 1];
+        for (int level = 1; level <= max; level++) {
+            cumulative[level] = saturatedAdd(cumulative[level - 1], step(level));
+        }
+    }
+
+    public static XpCurveTable compile(GeneralConfig cfg) {
+        return new XpCurveTable(cfg);
+    }
+
+    /** Total XP needed for the max level; gains are clamped to this. */
+    long maxTotal() {
+        return cumulative[cumulative.length - 1];
+    }
+
+    /** Total XP needed to reach the level. Past the max level the curve keeps going, uncached. */
+    long totalFor(int level) {
+        if (level <= 0) return 0L;
+        if (level < cumulative.length) return cumulative[level];
+
+        long total = maxTotal();
+        for (int l = cumulative.length; l <= level && total != Long.MAX_VALUE; l++) {
+            total = saturatedAdd(total, step(l));
+        }
+        return total;
+    }
+
+    /** Highest level whose total is at most {@code total}; 0..maxLevel. */
+    int levelFor(long total) {
+        if (total <= 0L) return 0;
+
+        long[] c = cumulative;
+        int lo = 0;
+        int n = c.length;
+        while (n > 1) {
+            int half = n >>> 1;
+            lo = (c[lo + half] <= total) ? lo + half : lo; // compiles to a conditional move
+            n -= half;
+        }
+        return lo;
+    }
+
+    /** XP it costs to go from level - 1 to level; never negative. */
+    long step(int level) {
+        if (level <= 0) return 0L;
+        long l = level;
+
+        long cost = switch (kind) {
+            case LINEAR -> curve.linearBase + l * curve.multiplier;
+            case QUAD -> curve.quadA * l * l + curve.quadB * l + curve.quadC;
+            case EXPONENTIAL -> {
+                double v = curve.expBase * Math.pow(curve.expGrowth, level - 1);
+                yield (v >= Long.MAX_VALUE) ? Long.MAX_VALUE : Math.round(v);
+            }
+            case TABLE -> (custom.length == 0) ? 0L : custom[Math.min(level, custom.length) - 1];
+        };
+        return Math.max(0L, cost);
+    }
+
+    // ---------- Internals ----------
+
+    private static Kind kindOf(GeneralConfig.XpCurve curve) {
+        String base = (curve.base == null) ? "" : curve.base.trim().toLowerCase(Locale.ROOT);
+        switch (base) {
+            case "linear": return Kind.LINEAR;
+            case "exponential": return Kind.EXPONENTIAL;
+            case "table":
+                if (curve.table != null && !curve.table.isEmpty()) return Kind.TABLE;
+                McRPG.getLogger().warning("xpCurve.base is 'table' but xpCurve.table is empty; using 'linear'");
+                return Kind.LINEAR;
+            default: return Kind.QUAD; // as before: anything but "linear" was quadratic
+        }
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] out = new long[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            Long v = values.get(i);
+            out[i] = (v == null) ? 0L : v;
+        }
+        return out;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long r = a + b;
+        return (((a ^ r) & (b ^ r)) < 0) ? Long.MAX_VALUE : r;
+    }
+}
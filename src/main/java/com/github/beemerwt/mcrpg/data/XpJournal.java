@@ -0,0 +1,306 @@
+package com.github.beemerwt.mcrpg.data;
+
+import com.github.beemerwt.mcrpg.McRPG;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of XP changes, so progress made between autosaves survives a crash.
+ * - Records carry the skill's new total rather than a delta, so replaying one twice is harmless.
+ * - The tick thread only copies a record into memory; a background thread writes and fsyncs
+ *   whatever accumulated since its last pass (group commit).
+ * - Each checkpoint seals the current segment; a sealed segment is deleted once everything
+ *   it covers has been committed to players.db. The tick thread only marks where the segment
+ *   ends; the journal thread does the closing and opening.
+ *
+ * Segment file: "MRJ1" header, then records of
+ *   uuid msb (8) | uuid lsb (8) | skill id (2) | total xp (8) | crc32 of the preceding 26 bytes (4)
+ * A short or corrupt record ends replay of that segment (torn write at crash).
+ */
+final class XpJournal implements Closeable {
+    private static final int MAGIC = 0x4D524A31; // "MRJ1"
+    private static final int RECORD_BYTES = 30;
+    private static final String PREFIX = "xp-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path dir;
+    private final long syncIntervalMs;
+
+    // Appends only take lock; file work takes io (always io before lock), so fsync never blocks the tick
+    private final Object lock = new Object();
+    private final Object io = new Object();
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024); // guarded by lock
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);  // guarded by io
+    private final CRC32 crc = new CRC32();                       // guarded by lock
+    private final ArrayDeque<ByteBuffer> sealing = new ArrayDeque<>(); // guarded by lock; tails of sealed segments
+    private long appending;                                      // guarded by lock; segment new records belong to
+    private long segment;                                        // guarded by io
+    private FileChannel channel;                                 // guarded by io
+    private volatile long sealedThrough;                         // highest sealed segment
+
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /** Opens a fresh segment after any existing ones; call {@link #replay} first. */
+    XpJournal(Path dir, long syncIntervalMs) throws IOException {
+        this.dir = dir;
+        this.syncIntervalMs = Math.max(10L, syncIntervalMs);
+        Files.createDirectories(dir);
+
+        List<Path> existing = segments(dir);
+        this.segment = existing.isEmpty() ? 1L : segmentNumber(existing.get(existing.size() - 1)) + 1L;
+        this.sealedThrough = segment - 1L;
+        this.appending = segment;
+        this.channel = openSegment(dir, segment);
+
+        this.thread = new Thread(this::run, "McRPG-Journal");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // ---------- Producer side (tick thread) ----------
+
+    void append(UUID id, SkillType skill, long total) {
+        synchronized (lock) {
+            if (buffer.remaining() < RECORD_BYTES) {
+                ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                bigger.put(buffer);
+                buffer = bigger;
+            }
+
+            int start = buffer.position();
+            buffer.putLong(id.getMostSignificantBits());
+            buffer.putLong(id.getLeastSignificantBits());
+            buffer.putShort(skill.id());
+            buffer.putLong(total);
+
+            crc.reset();
+            crc.update(buffer.array(), start, RECORD_BYTES - 4);
+            buffer.putInt((int) crc.getValue());
+        }
+    }
+
+    /**
+     * Checkpoint: end the current segment here and start a new one. Only swaps a buffer on the
+     * calling thread; the journal thread writes, closes and opens the files on its next pass.
+     * Call right after the snapshots covering the segment were handed to the writer.
+     * @return the sealed segment number; {@link #sealedThrough} reaches it once it is on disk
+     */
+    long seal() {
+        synchronized (lock) {
+            sealing.addLast(buffer);
+            buffer = ByteBuffer.allocate(buffer.capacity());
+            return appending++;
+        }
+    }
+
+    long sealedThrough() {
+        return sealedThrough;
+    }
+
+    /** Delete sealed segments up to and including {@code through}; their changes are in the database. */
+    void release(long through) {
+        try {
+            for (Path p : segments(dir)) {
+                if (segmentNumber(p) <= through) Files.deleteIfExists(p);
+            }
+        } catch (IOException e) {
+            McRPG.getLogger().error(e, "Failed to delete checkpointed XP journal segments");
+        }
+    }
+
+    // ---------- Replay ----------
+
+    /**
+     * Read every segment left in {@code dir}, oldest first.
+     * @return latest total per player and skill; empty if there is nothing to recover
+     */
+    static Map<UUID, Map<SkillType, Long>> replay(Path dir) throws IOException {
+        Map<UUID, Map<SkillType, Long>> out = new HashMap<>();
+        if (!Files.isDirectory(dir)) return out;
+
+        CRC32 crc = new CRC32();
+        for (Path p : segments(dir)) {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(p));
+            if (buf.remaining() < 4 || buf.getInt() != MAGIC) {
+                McRPG.getLogger().warning("Skipping unreadable XP journal {}", p.getFileName());
+                continue;
+            }
+
+            int records = 0;
+            while (buf.remaining() >= RECORD_BYTES) {
+                int start = buf.position();
+                long msb = buf.getLong();
+                long lsb = buf.getLong();
+                short skillId = buf.getShort();
+                long total = buf.getLong();
+                int stored = buf.getInt();
+
+                crc.reset();
+                crc.update(buf.array(), start, RECORD_BYTES - 4);
+                if ((int) crc.getValue() != stored) {
+                    McRPG.getLogger().warning("XP journal {} is torn after {} record(s)", p.getFileName(), records);
+                    break;
+                }
+
+                SkillType skill;
+                try {
+                    skill = SkillType.fromId(skillId);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                out.computeIfAbsent(new UUID(msb, lsb), k -> new EnumMap<>(SkillType.class)).put(skill, total);
+                records++;
+            }
+        }
+        return out;
+    }
+
+    /** Delete every segment in {@code dir}; used after a replay was written to the database. */
+    static void deleteAll(Path dir) throws IOException {
+        for (Path p : segments(dir)) Files.deleteIfExists(p);
+    }
+
+    // ---------- Writer thread ----------
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(syncIntervalMs);
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            synchronized (io) {
+                try {
+                    writeBuffered();
+                } catch (IOException e) {
+                    McRPG.getLogger().error(e, "Failed to write XP journal segment {}", segment);
+                }
+            }
+        }
+    }
+
+    /** Finish any segments sealed since the last pass, then write the current one. Caller holds io. */
+    private void writeBuffered() throws IOException {
+        ByteBuffer out;
+        while (true) {
+            ByteBuffer tail;
+            synchronized (lock) {
+                // The live buffer belongs to the open segment only once nothing sealed is left ahead of it
+                tail = sealing.pollFirst();
+                if (tail == null) {
+                    if (buffer.position() == 0) return;
+                    out = buffer;
+                    buffer = (spare.capacity() >= out.capacity()) ? spare : ByteBuffer.allocate(out.capacity());
+                    buffer.clear();
+                    break;
+                }
+            }
+            finishSegment(tail);
+        }
+        spare = out;
+
+        out.flip();
+        try {
+            if (channel == null) return; // segment couldn't be opened; these changes only reach the database
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(false);
+        } finally {
+            out.clear();
+        }
+    }
+
+    /** Write the last records of the open segment, close it and open the next. Caller holds io. */
+    private void finishSegment(ByteBuffer tail) {
+        tail.flip();
+        if (channel != null) {
+            try (FileChannel ch = channel) {
+                while (tail.hasRemaining()) ch.write(tail);
+                ch.force(false);
+            } catch (IOException e) {
+                McRPG.getLogger().error(e, "Failed to seal XP journal segment {}", segment);
+            }
+        }
+
+        // Advance even after a failure, so segment numbers stay in step with seal()
+        sealedThrough = segment;
+        segment++;
+        try {
+            channel = openSegment(dir, segment);
+        } catch (IOException e) {
+            McRPG.getLogger().error(e, "Failed to open XP journal segment {}; journaling paused", segment);
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        // No interrupt: an interrupted FileChannel write closes the channel
+        running = false;
+        try {
+            thread.join(syncIntervalMs + 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (io) {
+            try {
+                writeBuffered();
+                if (channel != null) channel.close();
+            } catch (IOException e) {
+                McRPG.getLogger().error(e, "Failed to close XP journal");
+            }
+            channel = null;
+        }
+    }
+
+    // ---------- Files ----------
+
+    private static FileChannel openSegment(Path dir, long n) throws IOException {
+        FileChannel ch = FileChannel.open(dir.resolve(PREFIX + n + SUFFIX),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC).flip();
+        while (header.hasRemaining()) ch.write(header);
+        ch.force(false);
+        return ch;
+    }
+
+    /** Segment files in ascending order. */
+    private static List<Path> segments(Path dir) throws IOException {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : ds) {
+                if (segmentNumber(p) > 0L) out.add(p);
+            }
+        }
+        out.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return out;
+    }
+
+    private static long segmentNumber(Path p) {
+        String name = p.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return 0L;
+        }
+    }
+}
@@ -11,13 +11,9 @@ import com.github.beemerwt.mcrpg.skills.Mining;
 import com.github.beemerwt.mcrpg.skills.Woodcutting;
 import com.github.beemerwt.mcrpg.util.BlockClassifier;
 import net.fabricmc.fabric.api.event.player.PlayerBlockBreakEvents;
-import net.minecraft.block.Block;
-import net.minecraft.item.ItemStack;
-import net.minecraft.registry.Registries;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 
-import java.util.List;
 import java.util.Random;
 
 // TODO: Smelting implementation
@@ -38,7 +34,6 @@ public final class BlockEvents {
             McRPG.getLogger().debug("Processing block break event at {} by player {}", pos, player.getName().getString());
 
             var block = state.getBlock();
-            var blockName = Registries.BLOCK.getId(block).toString();
 
             if (BlockClassifier.isFurnace(block)) {
                 McRPG.getLogger().debug("Removing furnace at {} from smelt automation tracking", pos);
@@ -46,36 +41,33 @@ public final class BlockEvents {
                 return true;
             }
 
-            var skillCfg = ConfigManager.whichSkillHasBlock(blockName).orElse(null);
+            var skillCfg = ConfigManager.whichSkillHasBlock(block);
             if (skillCfg == null) {
-                McRPG.getLogger().debug("No skill associated with block " + blockName);
+                McRPG.getLogger().debug("No skill associated with block {}", block);
                 return true;
             }
 
-            ItemStack tool = player.getMainHandStack();
-            List<ItemStack> drops = Block.getDroppedStacks(state, sw, pos, entity, player, tool);
-
             // Handle crop markers before placed block check, since crops can be both player-placed and naturally spawned
             var marker = CropMarkers.get(sw);
             if (marker.isMarked(pos)) {
                 marker.unmark(sw, pos);
-                McRPG.getLogger().debug("Removing marked crop {}", blockName);
-                Herbalism.onCropBroken(sp, sw, pos, state, drops);
+                McRPG.getLogger().debug("Removing marked crop {}", block);
+                Herbalism.onCropBroken(sp, sw, pos, state);
                 return true;
             }
 
             var tracker = PlacedBlockTracker.get(sw);
             if (tracker.isMarked(pos)) {
                 tracker.unmark(sw, pos);
-                McRPG.getLogger().debug("Skipping block {} because it was player-placed", blockName);
+                McRPG.getLogger().debug("Skipping block {} because it was player-placed", block);
                 return true;
             }
 
             switch (skillCfg.getSkillType()) {
-                case MINING -> Mining.onBlockMined(sp, sw, pos, state, drops);
-                case WOODCUTTING -> Woodcutting.onLogChopped(sp, sw, pos, state, drops);
-                case EXCAVATION -> Excavation.onBlockDug(sp, sw, pos, state, drops);
-                case HERBALISM -> Herbalism.onCropBroken(sp, sw, pos, state, drops);
+                case MINING -> Mining.onBlockMined(sp, sw, pos, state);
+                case WOODCUTTING -> Woodcutting.onLogChopped(sp, sw, pos, state);
+                case EXCAVATION -> Excavation.onBlockDug(sp, sw, pos, state);
+                case HERBALISM -> Herbalism.onCropBroken(sp, sw, pos, state);
             }
 
             return true;
@@ -0,0 +1,121 @@
+package com.github.beemerwt.mcrpg.managers;
+
+import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.config.IHasBlocks;
+import com.github.beemerwt.mcrpg.config.SkillConfig;
+import com.github.beemerwt.mcrpg.data.SkillType;
+import net.minecraft.block.Block;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Block tables compiled from the skill configs, indexed by block raw registry id.
+ * - owners[rawId] is the skill config that handles breaking/placing that block.
+ * - xp[skill.ordinal()][rawId] is the XP that skill gives for the block, 0 if none.
+ * Precedence, for both tables:
+ * - A literal "namespace:block" entry beats any "#namespace:tag" entry that also covers the block.
+ * - Among tags in one config, the first listed wins (config order).
+ * - Between skills, a literal listing in any skill beats a tag in another; otherwise SkillType order wins.
+ * Tags resolve against whatever is bound at build time, so ConfigManager rebuilds this on tag reload.
+ * Raw ids past the end (blocks registered after the build) are a miss until the next rebuild.
+ */
+final class BlockSkillIndex {
+    static final BlockSkillIndex EMPTY = new BlockSkillIndex(new SkillConfig[0], new int[SkillType.values().length][]);
+
+    private final SkillConfig[] owners;
+    private final int[][] xp;
+
+    private BlockSkillIndex(SkillConfig[] owners, int[][] xp) {
+        this.owners = owners;
+        this.xp = xp;
+    }
+
+    static BlockSkillIndex build(Map<SkillType, SkillConfig> bySkill) {
+        int size = Registries.BLOCK.size();
+        SkillConfig[] owners = new SkillConfig[size];
+        SkillConfig[] tagOwners = new SkillConfig[size];
+        int[][] xp = new int[SkillType.values().length][];
+
+        int literals = 0, tagged = 0;
+        for (SkillType skill : SkillType.values()) {
+            if (!(bySkill.get(skill) instanceof IHasBlocks hb)) continue;
+            SkillConfig cfg = bySkill.get(skill);
+
+            int[] table = new int[size];
+            BitSet assigned = new BitSet(size);
+
+            // Literals first so they win regardless of where tags sit in the map
+            for (var e : hb.getBlocks().entrySet()) {
+                String key = e.getKey();
+                if (key.startsWith("#")) continue;
+
+                Identifier id = Identifier.tryParse(key);
+                if (id == null || !Registries.BLOCK.containsId(id)) {
+                    McRPG.getLogger().debug("{} config lists unknown block {}", skill, key);
+                    continue;
+                }
+
+                int raw = Registries.BLOCK.getRawId(Registries.BLOCK.get(id));
+                table[raw] = valueOf(e.getValue());
+                assigned.set(raw);
+                if (owners[raw] == null) owners[raw] = cfg;
+                literals++;
+            }
+
+            for (var e : hb.getBlocks().entrySet()) {
+                String key = e.getKey();
+                if (!key.startsWith("#")) continue;
+
+                Identifier tagId = Identifier.tryParse(key.substring(1));
+                if (tagId == null) {
+                    McRPG.getLogger().debug("{} config lists invalid tag {}", skill, key);
+                    continue;
+                }
+
+                int value = valueOf(e.getValue());
+                TagKey<Block> tag = TagKey.of(RegistryKeys.BLOCK, tagId);
+                for (RegistryEntry<Block> entry : Registries.BLOCK.iterateEntries(tag)) {
+                    int raw = Registries.BLOCK.getRawId(entry.value());
+                    if (raw < 0 || raw >= size || assigned.get(raw)) continue;
+
+                    table[raw] = value;
+                    assigned.set(raw);
+                    if (tagOwners[raw] == null) tagOwners[raw] = cfg;
+                    tagged++;
+                }
+            }
+
+            xp[skill.ordinal()] = table;
+        }
+
+        for (int raw = 0; raw < size; raw++) {
+            if (owners[raw] == null) owners[raw] = tagOwners[raw];
+        }
+
+        McRPG.getLogger().debug("Indexed {} literal and {} tagged block entries over {} blocks", literals, tagged, size);
+        return new BlockSkillIndex(owners, xp);
+    }
+
+    @Nullable SkillConfig owner(Block block) {
+        int raw = Registries.BLOCK.getRawId(block);
+        return (raw >= 0 && raw < owners.length) ? owners[raw] : null;
+    }
+
+    long xp(SkillType skill, Block block) {
+        int[] table = xp[skill.ordinal()];
+        if (table == null) return 0L;
+        int raw = Registries.BLOCK.getRawId(block);
+        return (raw >= 0 && raw < table.length) ? table[raw] : 0L;
+    }
+
+    private static int valueOf(@Nullable Integer v) {
+        return (v == null) ? 0 : v;
+    }
+}
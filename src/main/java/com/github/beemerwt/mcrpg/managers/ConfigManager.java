@@ -1,29 +1,37 @@
 package com.github.beemerwt.mcrpg.managers;
 
-import blue.endless.jankson.Jankson;
 import blue.endless.jankson.JsonObject;
 import blue.endless.jankson.api.SyntaxError;
 import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.abilities.TreasureTable;
 import com.github.beemerwt.mcrpg.config.AbilityConfig;
 import com.github.beemerwt.mcrpg.config.GeneralConfig;
-import com.github.beemerwt.mcrpg.config.IHasBlocks;
+import com.github.beemerwt.mcrpg.config.ParsedConfigCache;
 import com.github.beemerwt.mcrpg.config.SkillConfig;
 import com.github.beemerwt.mcrpg.config.skills.ExcavationConfig;
 import com.github.beemerwt.mcrpg.data.ActiveAbilityType;
 import com.github.beemerwt.mcrpg.data.SkillType;
+import com.github.beemerwt.mcrpg.data.XpCurveTable;
+import com.github.beemerwt.mcrpg.util.AsyncIO;
 import com.github.beemerwt.mcrpg.util.FabricLogger;
 import com.github.beemerwt.mcrpg.util.JanksonSerde;
 import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.block.Block;
+import net.minecraft.server.MinecraftServer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 // TODO: Validate all identifiers in configs
 //       Potentially use a special type like "BlockString" or "IDString" that does validation on set
@@ -33,27 +41,114 @@ public final class ConfigManager {
     public static final Path SKILLS_DIR = CONFIG_DIR.resolve("skills");
     private static final String RES_BASE = "mcrpg/defaults/";
 
-    private static final Jankson J = Jankson.builder().build();
+    private static final SkillType[] LOADED_SKILLS = {
+            SkillType.ACROBATICS,
+            // Gathering skills
+            SkillType.MINING, SkillType.WOODCUTTING, SkillType.EXCAVATION, SkillType.HERBALISM,
+            // Artisan skills (FISHING, ALCHEMY not yet)
+            SkillType.SMELTING, SkillType.REPAIR, SkillType.SALVAGE,
+            // Combat skills (ARCHERY not yet)
+            SkillType.SWORDS, SkillType.UNARMED, SkillType.AXES
+    };
+
+    private static final ExecutorService RELOADER = AsyncIO.singleThread("McRPG-Config");
+
+    /**
+     * One complete config generation: parsed, validated and compiled before anyone can see it.
+     * Readers grab {@link #current} once and get a consistent view; reload swaps the whole thing.
+     * Only the debug flag is ever written after publication (see {@link #setDebug}).
+     */
+    private record Snapshot(GeneralConfig general,
+                            Map<SkillType, SkillConfig> skills,
+                            Map<ActiveAbilityType, SkillConfig> abilities,
+                            XpCurveTable curve,
+                            BlockSkillIndex blocks,
+                            TreasureTable treasures) {
+        /** Recompile the tables that resolve registry entries and tags. */
+        Snapshot withRegistryTables() {
+            ExcavationConfig excavation = (ExcavationConfig) skills.get(SkillType.EXCAVATION);
+            return new Snapshot(general, skills, abilities, curve,
+                    BlockSkillIndex.build(skills),
+                    (excavation != null) ? TreasureTable.compile(excavation.treasures) : TreasureTable.EMPTY);
+        }
+    }
 
-    private static final GeneralConfig GENERAL = new GeneralConfig();
-    static final Map<SkillType, SkillConfig> BY_SKILL = new EnumMap<>(SkillType.class);
-    private static volatile EnumMap<ActiveAbilityType, SkillConfig> ABILITY_TO_SKILL = new EnumMap<>(ActiveAbilityType.class);
+    private static volatile Snapshot current = empty();
 
     private ConfigManager() {}
 
+    /** Load every config and publish it; runs on the calling thread. Used at startup. */
     public static void init() {
+        publish(load(false));
+    }
+
+    /**
+     * Parse and compile every config on a background thread, then swap it in on the server thread.
+     * If any config file has a syntax error the reload is abandoned and the running config stays.
+     * @return completes once the new config is live, or exceptionally if loading failed
+     */
+    public static CompletableFuture<Void> reloadAll() {
+        McRPG.getLogger().info("Reloading all configs...");
+        MinecraftServer server = McRPG.getServer();
+        Executor publisher = (server != null) ? server : Runnable::run;
+
+        return CompletableFuture.supplyAsync(() -> load(true), RELOADER)
+                .thenAcceptAsync(ConfigManager::publish, publisher)
+                .thenRun(LeaderboardManager::refreshLevels); // curve or max level may have changed
+    }
+
+    /** Parse general.json5 and every skill config in parallel, then compile the result. */
+    private static Snapshot load(boolean strict) {
+        long start = System.nanoTime();
         try { Files.createDirectories(SKILLS_DIR); }
         catch (IOException e) { McRPG.getLogger().error(e, "Could not create {}", CONFIG_DIR); }
 
-        try (InputStream in = Files.newInputStream(CONFIG_DIR.resolve("general.json5"))) {
-            JsonObject obj = J.load(in);
-            JanksonSerde.fillFrom(obj, GENERAL);
+        CompletableFuture<GeneralConfig> generalFuture = CompletableFuture.supplyAsync(() -> loadGeneral(strict));
+        EnumMap<SkillType, CompletableFuture<SkillConfig>> pending = new EnumMap<>(SkillType.class);
+        for (SkillType s : LOADED_SKILLS) {
+            pending.put(s, CompletableFuture.supplyAsync(() -> SkillConfig.createOrLoadConfig(s, strict)));
+        }
+
+        GeneralConfig general = join(generalFuture);
+        EnumMap<SkillType, SkillConfig> skills = new EnumMap<>(SkillType.class);
+        for (var e : pending.entrySet()) {
+            SkillConfig cfg = join(e.getValue());
+            if (cfg == null) throw new IllegalStateException("No config could be loaded for " + e.getKey());
+            skills.put(e.getKey(), cfg);
+        }
+
+        McRPG.getLogger().info("Loaded {} skill configs in {} ms", skills.size(), (System.nanoTime() - start) / 1_000_000L);
+
+        return new Snapshot(general,
+                Collections.unmodifiableMap(skills),
+                buildAbilityIndex(skills),
+                XpCurveTable.compile(general),
+                BlockSkillIndex.EMPTY,  // registry tables are compiled at publish time
+                TreasureTable.EMPTY);
+    }
+
+    /** Wait for a parallel load, rethrowing what it threw rather than a CompletionException. */
+    private static <T> T join(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private static GeneralConfig loadGeneral(boolean strict) {
+        GeneralConfig general = new GeneralConfig();
+        var generalFile = CONFIG_DIR.resolve("general.json5");
+
+        try {
+            JsonObject obj = ParsedConfigCache.load(generalFile);
+            JanksonSerde.fillFrom(obj, general);
             McRPG.getLogger().info("Loaded general.json5");
         } catch (IOException e) {
             McRPG.getLogger().info("No general.json5 found, creating default.");
             try {
-                var generalConfig = JanksonSerde.toJson(GENERAL);
-                var generalFile = CONFIG_DIR.resolve("general.json5");
+                var generalConfig = JanksonSerde.toJson(general);
                 Files.createDirectories(generalFile.getParent());
                 Files.writeString(generalFile, generalConfig.toJson(true, true));
             } catch (Exception ex) {
@@ -62,65 +157,31 @@ public final class ConfigManager {
             }
         } catch (SyntaxError e) {
             McRPG.getLogger().error(e, "Syntax error in general config: {}", e.getMessage());
+            if (strict) throw new IllegalStateException("Syntax error in general.json5: " + e.getMessage(), e);
         }
 
-        BY_SKILL.put(SkillType.ACROBATICS, SkillConfig.createOrLoadConfig(SkillType.ACROBATICS));
-
-        // Gathering skills
-        BY_SKILL.put(SkillType.MINING, SkillConfig.createOrLoadConfig(SkillType.MINING));
-        BY_SKILL.put(SkillType.WOODCUTTING, SkillConfig.createOrLoadConfig(SkillType.WOODCUTTING));
-        BY_SKILL.put(SkillType.EXCAVATION, SkillConfig.createOrLoadConfig(SkillType.EXCAVATION));
-        BY_SKILL.put(SkillType.HERBALISM, SkillConfig.createOrLoadConfig(SkillType.HERBALISM));
-
-        // Artisan skill
-        BY_SKILL.put(SkillType.SMELTING, SkillConfig.createOrLoadConfig(SkillType.SMELTING));
-        BY_SKILL.put(SkillType.REPAIR, SkillConfig.createOrLoadConfig(SkillType.REPAIR));
-        BY_SKILL.put(SkillType.SALVAGE, SkillConfig.createOrLoadConfig(SkillType.SALVAGE));
-
-        // BY_SKILL.put(SkillType.FISHING, SkillConfig.createOrLoadConfig(SkillType.FISHING));
-        // BY_SKILL.put(SkillType.ALCHEMY, SkillConfig.createOrLoadConfig(SkillType.ALCHEMY));
-
-        // Combat skills
-        BY_SKILL.put(SkillType.SWORDS, SkillConfig.createOrLoadConfig(SkillType.SWORDS));
-        BY_SKILL.put(SkillType.UNARMED, SkillConfig.createOrLoadConfig(SkillType.UNARMED));
-        BY_SKILL.put(SkillType.AXES, SkillConfig.createOrLoadConfig(SkillType.AXES));
-        // BY_SKILL.put(SkillType.ARCHERY, SkillConfig.createOrLoadConfig(SkillType.ARCHERY));
-
-        rebuildAbilityIndex();
-
-        FabricLogger.setGlobalDebug(GENERAL.debug);
-        McRPG.getLogger().info("Debug logging is {}", GENERAL.debug ? "ENABLED" : "disabled");
-        McRPG.getLogger().info("Loaded {} skill configs", BY_SKILL.size());
-
-        // Test for excavation blocks
-        ExcavationConfig excavationConfig = getSkillConfig(SkillType.EXCAVATION);
-        for (var entry : excavationConfig.getBlocks().keySet()) {
-            McRPG.getLogger().debug("Excavation block: {}", entry);
-        }
+        return general;
+    }
 
-        for (var entry : excavationConfig.treasures.keySet()) {
-            McRPG.getLogger().debug("Excavation treasure: {}", entry);
+    /** Make a loaded snapshot live. Must run on the server thread once the server is up. */
+    private static void publish(Snapshot next) {
+        current = next.withRegistryTables();
 
-            var value = excavationConfig.treasures.get(entry);
-            if (value == null) {
-                McRPG.getLogger().debug("  <null> config");
-                continue;
-            }
-
-            McRPG.getLogger().debug("  dropsFrom: {}", value.dropsFrom);
-        }
+        FabricLogger.setGlobalDebug(next.general().debug);
+        McRPG.getLogger().info("Debug logging is {}", next.general().debug ? "ENABLED" : "disabled");
     }
 
-    public static void reloadAll() {
-        McRPG.getLogger().info("Reloading all configs...");
-        init();
-    }
+    public @NotNull static GeneralConfig getGeneralConfig() { return current.general(); }
+
+    /** The compiled XP curve of the live config. */
+    public @NotNull static XpCurveTable getXpCurve() { return current.curve(); }
 
-    public @NotNull static GeneralConfig getGeneralConfig() { return GENERAL; }
+    /** Excavation treasures compiled per block and level bracket. */
+    public @NotNull static TreasureTable getTreasureTable() { return current.treasures(); }
 
     @SuppressWarnings("unchecked")
     public @NotNull static <T extends SkillConfig> T getSkillConfig(SkillType s) {
-        return (T)BY_SKILL.get(s);
+        return (T) current.skills().get(s);
     }
 
     @SuppressWarnings("unchecked")
@@ -132,22 +193,23 @@ public final class ConfigManager {
     }
 
     public static Optional<SkillConfig> whichSkillHasAbility(ActiveAbilityType a) {
-        return Optional.ofNullable(ABILITY_TO_SKILL.get(a));
+        return Optional.ofNullable(current.abilities().get(a));
     }
 
-    public static Optional<SkillConfig> whichSkillHasBlock(String blockId) {
-        return BY_SKILL.values().stream()
-                .filter(Objects::nonNull) // in case a load failed and put(null) happened
-                .filter(cfg -> cfg instanceof IHasBlocks hb && hb.hasBlock(blockId))
-                .findFirst();
+    /** The skill whose config lists this block (directly or by tag), or null; a single array load. */
+    public static @Nullable SkillConfig whichSkillHasBlock(Block block) {
+        return current.blocks().owner(block);
     }
 
-    public static void rebuildAbilityIndex() {
-        EnumMap<ActiveAbilityType, SkillConfig> idx = new EnumMap<>(ActiveAbilityType.class);
+    /** XP the skill's config gives for this block, tags included; 0 if it isn't listed. */
+    public static long getBlockXp(SkillType skill, Block block) {
+        return current.blocks().xp(skill, block);
+    }
 
-        for (SkillConfig cfg : BY_SKILL.values()) {
-            if (cfg == null) continue;
+    private static Map<ActiveAbilityType, SkillConfig> buildAbilityIndex(Map<SkillType, SkillConfig> skills) {
+        EnumMap<ActiveAbilityType, SkillConfig> idx = new EnumMap<>(ActiveAbilityType.class);
 
+        for (SkillConfig cfg : skills.values()) {
             for (ActiveAbilityType a : ActiveAbilityType.values()) {
                 if (!cfg.hasAbility(a)) continue;
 
@@ -159,18 +221,33 @@ public final class ConfigManager {
             }
         }
 
-        ABILITY_TO_SKILL = idx;
+        return Collections.unmodifiableMap(idx);
+    }
+
+    /**
+     * Recompile the block and treasure tables of the live config against the current registry and tags.
+     * Called from tag (re)load, by which point every mod's blocks are registered; server thread only.
+     */
+    public static void rebuildBlockIndex() {
+        current = current.withRegistryTables();
+    }
+
+    private static Snapshot empty() {
+        GeneralConfig general = new GeneralConfig();
+        return new Snapshot(general, Map.of(), Map.of(), XpCurveTable.compile(general),
+                BlockSkillIndex.EMPTY, TreasureTable.EMPTY);
     }
 
     public static void setDebug(boolean debug) {
-        GENERAL.debug = debug;
+        GeneralConfig general = current.general();
+        general.debug = debug;
         FabricLogger.setGlobalDebug(debug);
 
         McRPG.getLogger().info("Debug logging is now {}", debug ? "ENABLED" : "disabled");
 
         // Save the setting to general.json5
         try {
-            var generalConfig = JanksonSerde.toJson(GENERAL);
+            var generalConfig = JanksonSerde.toJson(general);
             var generalFile = CONFIG_DIR.resolve("general.json5");
             Files.createDirectories(generalFile.getParent());
             Files.writeString(generalFile, generalConfig.toJson(true, true));
@@ -0,0 +1,211 @@
+package com.github.beemerwt.mcrpg.managers;
+
+import com.github.beemerwt.mcrpg.McRPG;
+import com.github.beemerwt.mcrpg.data.Leveling;
+import com.github.beemerwt.mcrpg.data.PlayerData;
+import com.github.beemerwt.mcrpg.data.PlayerStore;
+import com.github.beemerwt.mcrpg.data.SkillLinks;
+import com.github.beemerwt.mcrpg.data.SkillType;
+import com.github.beemerwt.mcrpg.util.AsyncIO;
+import com.github.beemerwt.mcrpg.util.RankTree;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory leaderboards, one per canonical skill plus the power level.
+ * - Built once at startup by streaming player_skills (plus any v1 rows not yet migrated) on a background thread.
+ * - Kept current by Leveling on every XP change, so rank queries never touch the database.
+ * - Regular skills rank by total XP; composite skills and power level rank by level.
+ * A {@code null} skill in the query methods means the power level board.
+ */
+public final class LeaderboardManager {
+    public record Row(int rank, UUID id, String name, long score) {}
+
+    private static final Object LOCK = new Object();
+    private static final EnumMap<SkillType, RankTree> BY_SKILL = new EnumMap<>(SkillType.class);
+    private static final RankTree POWER = new RankTree();
+    private static final Map<UUID, String> NAMES = new HashMap<>();
+
+    private static volatile boolean ready = false;
+
+    static {
+        for (SkillType s : SkillType.values()) {
+            if (!SkillLinks.isAlias(s)) BY_SKILL.put(s, new RankTree());
+        }
+    }
+
+    private LeaderboardManager() {}
+
+    public static void init(PlayerStore store) {
+        AsyncIO.daemonFactory("McRPG-Leaderboards").newThread(() -> build(store)).start();
+    }
+
+    public static boolean isReady() {
+        return ready;
+    }
+
+    // ---------- Updates ----------
+
+    /** Called by Leveling after a canonical skill's total XP changed. */
+    public static void onXpChanged(PlayerData p, SkillType skill, long total) {
+        RankTree tree = BY_SKILL.get(skill);
+        if (tree == null || SkillLinks.isComposite(skill)) return;
+
+        var cfg = ConfigManager.getGeneralConfig();
+        synchronized (LOCK) {
+            long before = tree.score(p.id);
+            tree.put(p.id, total);
+            NAMES.put(p.id, p.getName());
+
+            // Power and composite boards only move when a level does
+            if (Leveling.levelForTotalXp(before, cfg) != Leveling.levelForTotalXp(total, cfg))
+                refreshDerived(p.id);
+        }
+    }
+
+    /** Raise a player's boards to imported totals. Called from the import thread. */
+    public static void onImported(UUID id, @Nullable String name, Map<SkillType, Long> totals) {
+        synchronized (LOCK) {
+            for (var e : totals.entrySet()) {
+                SkillType s = SkillLinks.primaryOf(e.getKey());
+                RankTree tree = BY_SKILL.get(s);
+                if (tree == null || SkillLinks.isComposite(s)) continue;
+                tree.put(id, Math.max(tree.score(id), e.getValue()));
+            }
+            if (name != null) NAMES.putIfAbsent(id, name);
+            refreshDerived(id);
+        }
+    }
+
+    /** Recompute level-based boards after the XP curve or max level changed. */
+    public static void refreshLevels() {
+        AsyncIO.daemonFactory("McRPG-Leaderboards").newThread(() -> {
+            Set<UUID> ids = new HashSet<>();
+            synchronized (LOCK) {
+                for (var e : BY_SKILL.entrySet()) {
+                    if (!SkillLinks.isComposite(e.getKey())) ids.addAll(e.getValue().ids());
+                }
+            }
+
+            for (UUID id : ids) {
+                synchronized (LOCK) {
+                    refreshDerived(id);
+                }
+            }
+            McRPG.getLogger().debug("Recomputed leaderboard levels for {} players", ids.size());
+        }).start();
+    }
+
+    private static void build(PlayerStore store) {
+        long start = System.nanoTime();
+        UUID[] current = { null };
+        int[] players = { 0 };
+
+        store.scanSkills((id, name, skill, xp) -> {
+            SkillType s = SkillLinks.primaryOf(skill);
+            RankTree tree = BY_SKILL.get(s);
+
+            synchronized (LOCK) {
+                // Rows arrive grouped by player; finish the previous one when the id changes
+                if (!id.equals(current[0])) {
+                    if (current[0] != null) refreshDerived(current[0]);
+                    current[0] = id;
+                    players[0]++;
+                }
+
+                if (name != null) NAMES.putIfAbsent(id, name);
+
+                // Live updates that raced the scan are newer than the database row
+                if (tree != null && !SkillLinks.isComposite(s) && !tree.contains(id))
+                    tree.put(id, xp);
+            }
+        });
+
+        synchronized (LOCK) {
+            if (current[0] != null) refreshDerived(current[0]);
+        }
+
+        ready = true;
+        McRPG.getLogger().info("Built leaderboards for {} players in {} ms",
+            players[0], (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /** Caller holds LOCK. */
+    private static void refreshDerived(UUID id) {
+        var cfg = ConfigManager.getGeneralConfig();
+
+        long power = 0L;
+        for (var e : BY_SKILL.entrySet()) {
+            if (SkillLinks.isComposite(e.getKey())) continue;
+            power += Leveling.levelForTotalXp(e.getValue().score(id), cfg);
+        }
+        POWER.put(id, power);
+
+        for (var e : BY_SKILL.entrySet()) {
+            SkillLinks.Composite c = SkillLinks.compositeOf(e.getKey());
+            if (c == null) continue;
+
+            long sum = 0L;
+            for (SkillType part : c.parts()) {
+                RankTree partTree = BY_SKILL.get(SkillLinks.primaryOf(part));
+                if (partTree != null) sum += Leveling.levelForTotalXp(partTree.score(id), cfg);
+            }
+            e.getValue().put(id, Math.min(sum / c.parts().length, cfg.maxLevel));
+        }
+    }
+
+    // ---------- Queries ----------
+
+    /** Board for a skill (aliases resolve to their primary), or the power board for null. */
+    private static @Nullable RankTree board(@Nullable SkillType skill) {
+        if (skill == null) return POWER;
+        return BY_SKILL.get(SkillLinks.primaryOf(skill));
+    }
+
+    /** True if the board ranks by level rather than by total XP. */
+    public static boolean ranksByLevel(@Nullable SkillType skill) {
+        return skill == null || SkillLinks.isComposite(SkillLinks.primaryOf(skill));
+    }
+
+    public static int size(@Nullable SkillType skill) {
+        RankTree t = board(skill);
+        if (t == null) return 0;
+        synchronized (LOCK) {
+            return t.size();
+        }
+    }
+
+    public static List<Row> top(@Nullable SkillType skill, int offset, int limit) {
+        RankTree t = board(skill);
+        List<Row> out = new ArrayList<>();
+        if (t == null) return out;
+
+        synchronized (LOCK) {
+            int rank = offset + 1;
+            for (RankTree.Entry e : t.page(offset, limit)) {
+                out.add(new Row(rank++, e.id(), NAMES.getOrDefault(e.id(), e.id().toString()), e.score()));
+            }
+        }
+        return out;
+    }
+
+    /** The player's row on a board, or null if they aren't ranked there. */
+    public static @Nullable Row rankOf(@Nullable SkillType skill, UUID id) {
+        RankTree t = board(skill);
+        if (t == null) return null;
+
+        synchronized (LOCK) {
+            int rank = t.rankOf(id);
+            if (rank <= 0) return null;
+            return new Row(rank, id, NAMES.getOrDefault(id, id.toString()), t.score(id));
+        }
+    }
+}
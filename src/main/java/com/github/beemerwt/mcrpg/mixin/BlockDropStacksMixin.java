@@ -0,0 +1,28 @@
+package com.github.beemerwt.mcrpg.mixin;
+
+import com.github.beemerwt.mcrpg.abilities.DoubleDrops;
+import com.llamalad7.mixinextras.injector.ModifyExpressionValue;
+import com.llamalad7.mixinextras.sugar.Local;
+import net.minecraft.block.Block;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+import java.util.List;
+
+@Mixin(Block.class)
+public abstract class BlockDropStacksMixin {
+
+    // The drop path of a player's break (Block.afterBreak); merges a Double Drops bonus into the vanilla stacks
+    @ModifyExpressionValue(
+            method = "dropStacks(Lnet/minecraft/block/BlockState;Lnet/minecraft/world/World;Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/entity/BlockEntity;Lnet/minecraft/entity/Entity;Lnet/minecraft/item/ItemStack;)V",
+            at = @At(value = "INVOKE", target = "Lnet/minecraft/block/Block;getDroppedStacks(Lnet/minecraft/block/BlockState;Lnet/minecraft/server/world/ServerWorld;Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/entity/BlockEntity;Lnet/minecraft/entity/Entity;Lnet/minecraft/item/ItemStack;)Ljava/util/List;")
+    )
+    private static List<ItemStack> mcrpg$mergeDoubleDrops(
+            List<ItemStack> drops, @Local(argsOnly = true) World world, @Local(argsOnly = true) BlockPos pos
+    ) {
+        return DoubleDrops.applyPending(world, pos, drops);
+    }
+}
@@ -17,7 +17,6 @@ import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.item.ItemStack;
-import net.minecraft.registry.Registries;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundEvents;
@@ -62,10 +61,9 @@ public abstract class BlockOnPlacedMixin {
         }
 
         // Only track placements that are relevant to a skill (reduces save size)
-        String id = Registries.BLOCK.getId(block).toString();
-        var cfg = ConfigManager.whichSkillHasBlock(id).orElse(null);
+        var cfg = ConfigManager.whichSkillHasBlock(block);
         if (cfg == null) {
-            McRPG.getLogger().debug("Placed block {} is not tracked by any skill.", id);
+            McRPG.getLogger().debug("Placed block {} is not tracked by any skill.", block);
             return;
         }
 
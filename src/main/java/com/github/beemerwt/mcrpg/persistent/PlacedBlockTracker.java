@@ -2,28 +2,33 @@ package com.github.beemerwt.mcrpg.persistent;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.datafixer.DataFixTypes;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.PersistentState;
 import net.minecraft.world.PersistentStateManager;
 import net.minecraft.world.PersistentStateType;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
+/**
+ * Positions of player-placed blocks, per world, grouped by chunk so one chunk's marks can be
+ * copied without walking the whole world's set. Saved as a flat list of packed positions.
+ */
 public final class PlacedBlockTracker extends PersistentState {
     private static final String KEY = "mcrpg_player_placed";
-    private final Set<Long> positions = new HashSet<>();
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> byChunk = new Long2ObjectOpenHashMap<>();
 
     // Gross...
     private static final Codec<PlacedBlockTracker> CODEC = RecordCodecBuilder.create(inst ->
-            inst.group(Codec.LONG.listOf().fieldOf("positions").forGetter(tracker ->
-                    new ArrayList<>(tracker.positions))
+            inst.group(Codec.LONG.listOf().fieldOf("positions").forGetter(PlacedBlockTracker::flatten)
             ).apply(inst, (positions) -> {
                 PlacedBlockTracker tracker = new PlacedBlockTracker();
-                tracker.positions.addAll(positions);
+                for (long p : positions) tracker.add(p);
                 return tracker;
             })
     );
@@ -41,19 +46,51 @@ public final class PlacedBlockTracker extends PersistentState {
     }
 
     public boolean isMarked(BlockPos pos) {
-        return positions.contains(pos.asLong());
+        return isMarked(pos.asLong());
+    }
+
+    /** Same as {@link #isMarked(BlockPos)} for a position packed with {@link BlockPos#asLong}. */
+    public boolean isMarked(long packedPos) {
+        LongOpenHashSet inChunk = byChunk.get(chunkKey(packedPos));
+        return inChunk != null && inChunk.contains(packedPos);
+    }
+
+    /** Add the marked positions of one chunk to {@code into}. */
+    public void copyChunk(int chunkX, int chunkZ, LongOpenHashSet into) {
+        LongOpenHashSet inChunk = byChunk.get(ChunkPos.toLong(chunkX, chunkZ));
+        if (inChunk != null) into.addAll(inChunk);
     }
 
     public void mark(ServerWorld world, BlockPos pos) {
-        if (positions.add(pos.asLong())) {
+        if (add(pos.asLong())) {
             markDirty();
         }
     }
 
     public void unmark(ServerWorld world, BlockPos pos) {
-        if (positions.remove(pos.asLong())) {
-            markDirty();
-        }
+        long p = pos.asLong();
+        long key = chunkKey(p);
+        LongOpenHashSet inChunk = byChunk.get(key);
+        if (inChunk == null || !inChunk.remove(p)) return;
+
+        if (inChunk.isEmpty()) byChunk.remove(key);
+        markDirty();
+    }
+
+    private boolean add(long packedPos) {
+        long key = chunkKey(packedPos);
+        LongOpenHashSet inChunk = byChunk.get(key);
+        if (inChunk == null) byChunk.put(key, inChunk = new LongOpenHashSet());
+        return inChunk.add(packedPos);
     }
-}
 
+    private List<Long> flatten() {
+        List<Long> out = new ArrayList<>();
+        for (LongOpenHashSet inChunk : byChunk.values()) out.addAll(inChunk);
+        return out;
+    }
+
+    private static long chunkKey(long packedPos) {
+        return ChunkPos.toLong(BlockPos.unpackLongX(packedPos) >> 4, BlockPos.unpackLongZ(packedPos) >> 4);
+    }
+}
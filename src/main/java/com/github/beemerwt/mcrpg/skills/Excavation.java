@@ -8,37 +8,30 @@ import com.github.beemerwt.mcrpg.abilities.TreasureFinding;
 import com.github.beemerwt.mcrpg.util.ItemClassifier;
 import com.github.beemerwt.mcrpg.data.Leveling;
 import net.minecraft.block.BlockState;
-import net.minecraft.item.ItemStack;
-import net.minecraft.registry.Registries;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import org.joml.Math;
 
-import java.util.List;
-
 public class Excavation {
 
     public static void onBlockDug(ServerPlayerEntity player,
                                   ServerWorld world,
                                   BlockPos pos,
-                                  BlockState state,
-                                  List<ItemStack> drops)
+                                  BlockState state)
     {
         ExcavationConfig cfg = ConfigManager.getSkillConfig(SkillType.EXCAVATION);
-        var blocks = cfg.getBlocks();
         var block = state.getBlock();
 
-        long blockXp = Leveling.resolveBlockXp(blocks, block);
+        long blockXp = ConfigManager.getBlockXp(SkillType.EXCAVATION, block);
         if (blockXp <= 0) return;
 
         int level = Leveling.getLevel(player, SkillType.EXCAVATION);
-        var id = Registries.BLOCK.getId(block).toString();
 
         // Only trigger skills if the player is using a pickaxe
         var tool = player.getMainHandStack().getItem();
         if (ItemClassifier.isShovel(tool)) {
-            long extraXp = TreasureFinding.processTrigger(cfg.treasures, level, player.getEntityWorld(), pos, block);
+            long extraXp = TreasureFinding.processTrigger(ConfigManager.getTreasureTable(), level, player.getEntityWorld(), pos, block);
             blockXp += extraXp;
         }
 
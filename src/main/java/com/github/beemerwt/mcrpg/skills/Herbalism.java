@@ -12,7 +12,6 @@ import com.github.beemerwt.mcrpg.proxies.CropBlockProxy;
 import com.github.beemerwt.mcrpg.util.Growth;
 import com.github.beemerwt.mcrpg.data.Leveling;
 import net.minecraft.block.*;
-import net.minecraft.item.ItemStack;
 import net.minecraft.registry.Registries;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
@@ -20,8 +19,6 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.random.Random;
 import org.joml.Math;
 
-import java.util.List;
-
 public class Herbalism {
 
     public static void register() {
@@ -44,14 +41,12 @@ public class Herbalism {
     public static void onCropBroken(ServerPlayerEntity player,
                                     ServerWorld world,
                                     BlockPos pos,
-                                    BlockState state,
-                                    List<ItemStack> drops)
+                                    BlockState state)
     {
         HerbalismConfig cfg = ConfigManager.getSkillConfig(SkillType.HERBALISM);
-        var blocks = cfg.getBlocks();
         var block = state.getBlock();
 
-        long blockXp = Leveling.resolveBlockXp(blocks, block);
+        long blockXp = ConfigManager.getBlockXp(SkillType.HERBALISM, block);
         if (blockXp <= 0) return;
 
         if (!Growth.isMature(state)) return; // Only award XP for fully grown crops
@@ -64,7 +59,7 @@ public class Herbalism {
 
         // Only trigger skills if the player is using a hoe and the crop supports double drops
         if (cfg.doubleDropCrops.get(id.toString()) != null)
-            if (DoubleDrops.processTrigger(cfg.doubleDrops, level, player.getEntityWorld(), pos, block, drops))
+            if (DoubleDrops.processTrigger(cfg.doubleDrops, level, player.getEntityWorld(), pos, block))
                 blockXp *= 2; // Double the XP awarded
 
         // Apply per-skill modifier
@@ -9,14 +9,11 @@ import com.github.beemerwt.mcrpg.util.BlockClassifier;
 import com.github.beemerwt.mcrpg.util.ItemClassifier;
 import com.github.beemerwt.mcrpg.data.Leveling;
 import net.minecraft.block.BlockState;
-import net.minecraft.item.ItemStack;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import org.joml.Math;
 
-import java.util.List;
-
 public class Mining {
     private Mining() {}
 
@@ -26,19 +23,16 @@ public class Mining {
      * @param world The world the block was mined in.
      * @param pos The position of the block that was mined.
      * @param state The block state of the block that was mined.
-     * @param drops The list of item drops from the block.
      */
     public static void onBlockMined(ServerPlayerEntity player,
                                     ServerWorld world,
                                     BlockPos pos,
-                                    BlockState state,
-                                    List<ItemStack> drops)
+                                    BlockState state)
     {
         MiningConfig cfg = ConfigManager.getSkillConfig(SkillType.MINING);
-        var blocks = cfg.getBlocks();
         var block = state.getBlock();
 
-        long blockXp = Leveling.resolveBlockXp(blocks, block);
+        long blockXp = ConfigManager.getBlockXp(SkillType.MINING, block);
         if (blockXp <= 0) return;
 
         int level = Leveling.getLevel(player, SkillType.MINING);
@@ -47,7 +41,7 @@ public class Mining {
         var tool = player.getMainHandStack().getItem();
         if (ItemClassifier.isPickaxe(tool) && BlockClassifier.isOre(block))
             // TODO: Implement whitelist/blacklist for blocks that can trigger double drops
-            if (DoubleDrops.processTrigger(cfg.doubleDrops, level, player.getEntityWorld(), pos, block, drops))
+            if (DoubleDrops.processTrigger(cfg.doubleDrops, level, player.getEntityWorld(), pos, block))
                 blockXp *= 2; // Double the XP awarded
 
         // Apply per-skill modifier
@@ -13,14 +13,11 @@ import com.github.beemerwt.mcrpg.util.BlockClassifier;
 import com.github.beemerwt.mcrpg.util.ItemClassifier;
 import com.github.beemerwt.mcrpg.data.Leveling;
 import net.minecraft.block.BlockState;
-import net.minecraft.item.ItemStack;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import org.joml.Math;
 
-import java.util.List;
-
 public class Woodcutting {
     private Woodcutting() {}
 
@@ -33,34 +30,26 @@ public class Woodcutting {
     public static void onLogChopped(ServerPlayerEntity player,
                                     ServerWorld world,
                                     BlockPos pos,
-                                    BlockState state,
-                                    List<ItemStack> drops)
+                                    BlockState state)
     {
         WoodcuttingConfig cfg = ConfigManager.getSkillConfig(SkillType.WOODCUTTING);
         var block = state.getBlock();
-        long blockXp = Leveling.resolveBlockXp(cfg.getBlocks(), block);
+        long blockXp = ConfigManager.getBlockXp(SkillType.WOODCUTTING, block);
         if (blockXp <= 0) return;
 
         int level = Leveling.getLevel(player, SkillType.WOODCUTTING);
 
         // Only trigger abilities when using an axe
         if (ItemClassifier.isAxe(player.getMainHandStack().getItem())) {
-            if (AbilityManager.isActive(player, ActiveAbilityType.TREE_FELLER)) {
-                long totalFromFeller = TreeFeller.fellAndProcess(player, pos, level, cfg);
-                if (totalFromFeller <= 0) return;
-
-                long awarded = Math.max(0, Math.round(totalFromFeller * cfg.xpModifier));
-                if (awarded <= 0) return;
+            // Tree Feller awards its own XP when the tree is down; don't double-count the original block
+            if (AbilityManager.isActive(player, ActiveAbilityType.TREE_FELLER)
+                    && TreeFeller.start(player, pos, level, cfg)) {
+                return;
+            }
 
-                McRPG.getLogger().debug("{} Woodcutting XP (Tree Feller) -> {}",
-                        awarded, player.getName().getString());
-                Leveling.addXp(player, SkillType.WOODCUTTING, awarded);
-                return; // IMPORTANT: don't double-count the original block
-            } else {
-                // Normal single-block double drops
-                if (DoubleDrops.processTrigger(cfg.doubleDrops, level, world, pos, block, drops)) {
-                    blockXp *= 2;
-                }
+            // Normal single-block double drops
+            if (DoubleDrops.processTrigger(cfg.doubleDrops, level, world, pos, block)) {
+                blockXp *= 2;
             }
         }
 
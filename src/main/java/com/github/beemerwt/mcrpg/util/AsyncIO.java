@@ -1,4 +1,25 @@
 package com.github.beemerwt.mcrpg.util;
 
-public class AsyncIO {
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Shared helpers for McRPG's background threads. */
+public final class AsyncIO {
+    private AsyncIO() {}
+
+    /** Daemon threads named "{prefix}-N" so they never hold the server open on shutdown. */
+    public static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static ExecutorService singleThread(String prefix) {
+        return Executors.newSingleThreadExecutor(daemonFactory(prefix));
+    }
 }
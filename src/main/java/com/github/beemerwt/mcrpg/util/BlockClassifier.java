@@ -7,6 +7,11 @@ import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.registry.tag.TagKey;
 import net.minecraft.util.Identifier;
 
+/**
+ * Block categories as a flag table indexed by raw registry id, so each check is one array load and a bit test.
+ * - Tags are only bound once they load, so {@link #rebuild()} runs on every tag (re)load.
+ * - Until the first rebuild, and for blocks registered after it, every check is false.
+ */
 public class BlockClassifier {
     private static final TagKey<Block> ORES = TagKey.of(RegistryKeys.BLOCK, Identifier.of("minecraft:ores"));
     private static final TagKey<Block> LEAVES = TagKey.of(RegistryKeys.BLOCK, Identifier.of("minecraft:leaves"));
@@ -20,49 +25,83 @@ public class BlockClassifier {
     private static final Identifier BLAST_FURNACE = Identifier.of("minecraft:blast_furnace");
     private static final Identifier SMOKER = Identifier.of("minecraft:smoker");
 
+    private static final Identifier MANGROVE_ROOTS = Identifier.of("minecraft:mangrove_roots");
+    private static final Identifier MUDDY_MANGROVE_ROOTS = Identifier.of("minecraft:muddy_mangrove_roots");
+
+    private static final int ORE = 1;
+    private static final int LEAF = 1 << 1;
+    private static final int WART = 1 << 2;
+    private static final int ROOTS = 1 << 3;
+    private static final int LOG = 1 << 4;
+    private static final int IRON = 1 << 5;
+    private static final int GOLD = 1 << 6;
+    private static final int SMELTER = 1 << 7;
+
+    private static volatile byte[] flags = new byte[0];
+
+    /** Recompute every block's flags from the current registry and tags. */
+    public static void rebuild() {
+        byte[] out = new byte[Registries.BLOCK.size()];
+        for (Block block : Registries.BLOCK) {
+            int raw = Registries.BLOCK.getRawId(block);
+            if (raw < 0 || raw >= out.length) continue;
+
+            RegistryEntry<Block> entry = Registries.BLOCK.getEntry(block);
+            Identifier id = Registries.BLOCK.getId(block);
+
+            int f = 0;
+            if (entry.isIn(ORES)) f |= ORE;
+            if (entry.isIn(LEAVES)) f |= LEAF;
+            if (entry.isIn(WART_BLOCKS)) f |= WART;
+            if (entry.isIn(LOGS)) f |= LOG;
+            if (id.equals(MANGROVE_ROOTS) || id.equals(MUDDY_MANGROVE_ROOTS)) f |= ROOTS;
+            if (id.equals(IRON_BLOCK)) f |= IRON;
+            if (id.equals(GOLD_BLOCK)) f |= GOLD;
+            if (id.equals(FURNACE) || id.equals(BLAST_FURNACE) || id.equals(SMOKER)) f |= SMELTER;
+            out[raw] = (byte) f;
+        }
+        flags = out;
+    }
+
+    private static boolean has(Block block, int flag) {
+        byte[] f = flags;
+        int raw = Registries.BLOCK.getRawId(block);
+        return raw >= 0 && raw < f.length && (f[raw] & flag) != 0;
+    }
+
     public static boolean isOre(Block block) {
-        RegistryEntry<Block> entry = Registries.BLOCK.getEntry(block);
-        return entry.isIn(ORES);
+        return has(block, ORE);
     }
 
     public static boolean isLeaf(Block block) {
-        RegistryEntry<Block> entry = Registries.BLOCK.getEntry(block);
-        return entry.isIn(LEAVES);
+        return has(block, LEAF);
     }
 
     public static boolean isWartBlock(Block block) {
-        RegistryEntry<Block> entry = Registries.BLOCK.getEntry(block);
-        return entry.isIn(WART_BLOCKS);
+        return has(block, WART);
     }
 
     public static boolean isRoots(Block block) {
-        String id = Registries.BLOCK.getId(block).toString();
-        return id.equalsIgnoreCase("minecraft:mangrove_roots") ||
-                id.equalsIgnoreCase("minecraft:muddy_mangrove_roots");
+        return has(block, ROOTS);
     }
 
     public static boolean isLog(Block block) {
-        RegistryEntry<Block> entry = Registries.BLOCK.getEntry(block);
-        return entry.isIn(LOGS);
+        return has(block, LOG);
     }
 
     public static boolean isAnvil(Block block) {
-        var blockId = Registries.BLOCK.getId(block);
-        return blockId.equals(GOLD_BLOCK) || blockId.equals(IRON_BLOCK);
+        return has(block, GOLD | IRON);
     }
 
     public static boolean isIronBlock(Block block) {
-        var blockId = Registries.BLOCK.getId(block);
-        return blockId.equals(IRON_BLOCK);
+        return has(block, IRON);
     }
 
     public static boolean isGoldBlock(Block block) {
-        var blockId = Registries.BLOCK.getId(block);
-        return blockId.equals(GOLD_BLOCK);
+        return has(block, GOLD);
     }
 
     public static boolean isFurnace(Block block) {
-        var blockId = Registries.BLOCK.getId(block);
-        return blockId.equals(FURNACE) || blockId.equals(BLAST_FURNACE) || blockId.equals(SMOKER);
+        return has(block, SMELTER);
     }
 }
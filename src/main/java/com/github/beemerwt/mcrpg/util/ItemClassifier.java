@@ -7,6 +7,10 @@ import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.registry.tag.TagKey;
 import net.minecraft.util.Identifier;
 
+/**
+ * Item categories as a flag table indexed by raw registry id; same scheme as {@link BlockClassifier}.
+ * Rebuilt on every tag (re)load; until then, and for items registered after it, every check is false.
+ */
 public final class ItemClassifier {
     private static final Identifier MACE_ITEM = Identifier.of("minecraft", "mace");
     private static final Identifier TRIDENT_ITEM = Identifier.of("minecraft", "trident");
@@ -22,47 +26,83 @@ public final class ItemClassifier {
     private static final TagKey<Item> SHOVELS = TagKey.of(RegistryKeys.ITEM, Identifier.of("minecraft:shovels"));
     private static final TagKey<Item> HOES = TagKey.of(RegistryKeys.ITEM, Identifier.of("minecraft:hoes"));
 
+    private static final int SWORD = 1;
+    private static final int AXE = 1 << 1;
+    private static final int BOW_LIKE = 1 << 2;
+    private static final int PICKAXE = 1 << 3;
+    private static final int SHOVEL = 1 << 4;
+    private static final int HOE = 1 << 5;
+    private static final int TOOL = 1 << 6;
+    private static final int TRIDENT = 1 << 7;
+    private static final int MACE = 1 << 8;
+
+    private static volatile short[] flags = new short[0];
+
+    /** Recompute every item's flags from the current registry and tags. */
+    public static void rebuild() {
+        short[] out = new short[Registries.ITEM.size()];
+        for (Item item : Registries.ITEM) {
+            int raw = Registries.ITEM.getRawId(item);
+            if (raw < 0 || raw >= out.length) continue;
+
+            RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
+            Identifier id = Registries.ITEM.getId(item);
+
+            int f = 0;
+            if (entry.isIn(SWORDS)) f |= SWORD;
+            if (entry.isIn(AXES)) f |= AXE;
+            if (entry.isIn(BOWS) || entry.isIn(CROSSBOWS)) f |= BOW_LIKE;
+            if (entry.isIn(PICKAXES)) f |= PICKAXE;
+            if (entry.isIn(SHOVELS)) f |= SHOVEL;
+            if (entry.isIn(HOES)) f |= HOE;
+            if (entry.isIn(MINING_LOOT)) f |= TOOL;
+            if (id.equals(TRIDENT_ITEM)) f |= TRIDENT;
+            if (id.equals(MACE_ITEM)) f |= MACE;
+            out[raw] = (short) f;
+        }
+        flags = out;
+    }
+
+    private static boolean has(Item item, int flag) {
+        short[] f = flags;
+        int raw = Registries.ITEM.getRawId(item);
+        return raw >= 0 && raw < f.length && (f[raw] & flag) != 0;
+    }
+
     public static boolean isSword(Item item) {
-        RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
-        return entry.isIn(SWORDS);
+        return has(item, SWORD);
     }
 
     public static boolean isAxe(Item item) {
-        RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
-        return entry.isIn(AXES);
+        return has(item, AXE);
     }
 
     public static boolean isBowLike(Item item) {
-        RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
-        return entry.isIn(BOWS) || entry.isIn(CROSSBOWS);
+        return has(item, BOW_LIKE);
     }
 
     public static boolean isPickaxe(Item item) {
-        RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
-        return entry.isIn(PICKAXES);
+        return has(item, PICKAXE);
     }
 
     public static boolean isShovel(Item item) {
-        RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
-        return entry.isIn(SHOVELS);
+        return has(item, SHOVEL);
     }
 
     public static boolean isHoe(Item item) {
-        RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
-        return entry.isIn(HOES);
+        return has(item, HOE);
     }
 
     public static boolean isTool(Item item) {
-        RegistryEntry<Item> entry = Registries.ITEM.getEntry(item);
-        return entry.isIn(MINING_LOOT);
+        return has(item, TOOL);
     }
 
     public static boolean isTrident(Item item) {
-        return Registries.ITEM.getId(item).equals(TRIDENT_ITEM);
+        return has(item, TRIDENT);
     }
 
     public static boolean isMace(Item item) {
-        return Registries.ITEM.getId(item).equals(MACE_ITEM);
+        return has(item, MACE);
     }
 
     public static String getItemType(Item item) {
@@ -75,4 +115,3 @@ public final class ItemClassifier {
         return "other";
     }
 }
-
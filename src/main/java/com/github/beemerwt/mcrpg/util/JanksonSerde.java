@@ -3,6 +3,9 @@ package com.github.beemerwt.mcrpg.util;
 import blue.endless.jankson.*;
 import com.github.beemerwt.mcrpg.annotation.*;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
 
@@ -12,38 +15,36 @@ import java.util.*;
  * - Exclude with @JankIgnore.
  * - Optional: @JankKey to rename; @JankComment to write comments.
  * Supports primitives, wrappers, String, enums, arrays, List<T>, Map<String,T>, and nested @JanksonObject.
+ * Each class is inspected once: its keys, comments, field kinds and MethodHandle accessors are cached,
+ * so large nested configs (repair/salvage/treasure entries) cost no reflection lookups per object.
  */
 public final class JanksonSerde {
     private JanksonSerde() {}
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<Schema> SCHEMAS = new ClassValue<>() {
+        @Override
+        protected Schema computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
     /* ========== Public API ========== */
     public static JsonObject toJson(Object pojo) {
         JsonObject out = new JsonObject();
 
-        // Walk class hierarchy from base -> derived
-        List<Class<?>> chain = hierarchy(pojo.getClass());
-        for (Class<?> c : chain) {
-            List<Field> fields = new ArrayList<>(Arrays.asList(c.getDeclaredFields()));
-            // Filter out static/transient/ignored
-            fields.removeIf(f -> Modifier.isStatic(f.getModifiers())
-                    || Modifier.isTransient(f.getModifiers())
-                    || f.isAnnotationPresent(JankIgnore.class));
-
-            for (Field f : fields) {
-                f.setAccessible(true);
-                String key = keyFor(f);
-                Object val = getFieldValue(pojo, f);
-
-                // NEW: omit optional default/empty values on write
-                if (f.isAnnotationPresent(JankOptional.class) && isDefaulty(val, f.getType())) {
-                    continue;
-                }
+        // Properties are cached base -> derived
+        for (Prop p : SCHEMAS.get(pojo.getClass()).props) {
+            Object val = p.get(pojo);
 
-                JsonElement el = toElement(val);
-                out.put(key, el);
-                if (f.isAnnotationPresent(JankComment.class))
-                    out.setComment(key, f.getAnnotation(JankComment.class).value());
-            }
+            // Omit optional default/empty values on write
+            if (p.optional && isDefaulty(val, p.type)) continue;
+
+            out.put(p.key, toElement(val));
+            if (p.comment != null) out.setComment(p.key, p.comment);
         }
         return out;
     }
@@ -51,38 +52,140 @@ public final class JanksonSerde {
     /** Populate an existing instance from a JsonObject, keeping field defaults for missing keys. */
     public static <T> T fillFrom(JsonObject obj, T instance) {
         if (obj == null || instance == null) return instance;
-        Class<?> type = instance.getClass();
-        if (!type.isAnnotationPresent(JanksonObject.class)) return instance;
+        Schema schema = SCHEMAS.get(instance.getClass());
+        if (!schema.annotated) return instance;
 
-        for (Field f : fieldsOf(type)) {
-            if (!shouldInclude(f)) continue;
-            String key = keyFor(f);
-            JsonElement raw = obj.get(key);
+        for (Prop p : schema.props) {
+            JsonElement raw = obj.get(p.key);
 
             if (raw == null || raw instanceof JsonNull) {
-                // If explicitly required, complain
-                JankProperty prop = f.getAnnotation(JankProperty.class);
-                boolean required = (prop != null && prop.required());
-
                 // If the field is optional, missing is fine
-                if (f.isAnnotationPresent(JankOptional.class)) {
-                    continue; // keep in-class default
-                }
+                if (p.optional) continue; // keep in-class default
 
-                if (required) {
-                    throw new IllegalStateException("Missing required key '" + key
-                            + "' for " + type.getName());
+                // If explicitly required, complain
+                if (p.required) {
+                    throw new IllegalStateException("Missing required key '" + p.key
+                            + "' for " + instance.getClass().getName());
                 }
 
                 // Not required and not optional -> keep default
                 continue;
             }
 
-            setFieldValueFromJson(instance, f, raw);
+            setFieldValueFromJson(instance, p, raw);
         }
         return instance;
     }
 
+    /* ========== Schema ========== */
+
+    private enum Kind { STRING, BOOLEAN, INT, LONG, DOUBLE, FLOAT, ENUM, LIST, MAP, OBJECT, OTHER }
+
+    /** One serialized field: its key, comment and flags resolved up front, plus typed accessors. */
+    private static final class Prop {
+        final String key;
+        final String comment;      // null if none
+        final boolean optional;
+        final boolean required;
+        final Class<?> type;
+        final Kind kind;
+        final Class<?> elemType;   // List element / Map value type; Object if unknown
+        final MethodHandle getter; // (Object)Object
+        final MethodHandle setter; // (Object,Object)void; null if the field cannot be written
+
+        Prop(Field f) throws IllegalAccessException {
+            JankComment c = f.getAnnotation(JankComment.class);
+            JankProperty prop = f.getAnnotation(JankProperty.class);
+
+            this.key = keyFor(f);
+            this.comment = (c != null) ? c.value() : null;
+            this.optional = f.isAnnotationPresent(JankOptional.class);
+            this.required = prop != null && prop.required();
+            this.type = f.getType();
+            this.kind = kindOf(type);
+            this.elemType = elemTypeOf(f, kind);
+
+            f.setAccessible(true);
+            this.getter = LOOKUP.unreflectGetter(f).asType(GETTER);
+            MethodHandle set;
+            try { set = LOOKUP.unreflectSetter(f).asType(SETTER); }
+            catch (IllegalAccessException e) { set = null; }
+            this.setter = set;
+        }
+
+        Object get(Object target) {
+            try { return (Object) getter.invokeExact(target); }
+            catch (Throwable ignored) { return null; }
+        }
+
+        void set(Object target, Object value) throws Throwable {
+            if (setter != null) setter.invokeExact(target, value);
+        }
+    }
+
+    private static final class Schema {
+        final boolean annotated;
+        final Prop[] props;
+        final MethodHandle ctor; // ()Object; null if there is no usable no-arg constructor
+
+        Schema(boolean annotated, Prop[] props, MethodHandle ctor) {
+            this.annotated = annotated;
+            this.props = props;
+            this.ctor = ctor;
+        }
+
+        Object newInstance() {
+            if (ctor == null) return null;
+            try { return (Object) ctor.invokeExact(); }
+            catch (Throwable ignored) { return null; }
+        }
+    }
+
+    private static Schema compile(Class<?> type) {
+        List<Prop> props = new ArrayList<>();
+        for (Class<?> c : hierarchy(type)) {
+            for (Field f : c.getDeclaredFields()) {
+                if (!shouldInclude(f)) continue;
+                try { props.add(new Prop(f)); }
+                catch (IllegalAccessException | RuntimeException ignored) {} // unreadable; skip like a failed get
+            }
+        }
+
+        MethodHandle ctor = null;
+        try {
+            var ct = type.getDeclaredConstructor();
+            ct.setAccessible(true);
+            ctor = LOOKUP.unreflectConstructor(ct).asType(MethodType.methodType(Object.class));
+        } catch (Throwable ignored) {}
+
+        return new Schema(type.isAnnotationPresent(JanksonObject.class), props.toArray(new Prop[0]), ctor);
+    }
+
+    private static Kind kindOf(Class<?> ft) {
+        if (ft == String.class) return Kind.STRING;
+        if (ft == boolean.class || ft == Boolean.class) return Kind.BOOLEAN;
+        if (ft == int.class || ft == Integer.class) return Kind.INT;
+        if (ft == long.class || ft == Long.class) return Kind.LONG;
+        if (ft == double.class || ft == Double.class) return Kind.DOUBLE;
+        if (ft == float.class || ft == Float.class) return Kind.FLOAT;
+        if (Enum.class.isAssignableFrom(ft)) return Kind.ENUM;
+        if (List.class.isAssignableFrom(ft)) return Kind.LIST;
+        if (Map.class.isAssignableFrom(ft)) return Kind.MAP;
+        if (ft.isAnnotationPresent(JanksonObject.class)) return Kind.OBJECT;
+        return Kind.OTHER;
+    }
+
+    private static Class<?> elemTypeOf(Field f, Kind kind) {
+        int arg;
+        if (kind == Kind.LIST) arg = 0;
+        else if (kind == Kind.MAP) arg = 1;
+        else return Object.class;
+
+        if (f.getGenericType() instanceof ParameterizedType pt
+                && pt.getActualTypeArguments()[arg] instanceof Class<?> c) return c;
+        return Object.class;
+    }
+
     /* ========== Core conversion ========== */
 
     private static JsonElement toElement(Object v) {
@@ -120,7 +223,7 @@ public final class JanksonSerde {
             return a;
         }
 
-        if (v.getClass().isAnnotationPresent(JanksonObject.class)) {
+        if (SCHEMAS.get(v.getClass()).annotated) {
             return toJson(v);
         }
 
@@ -160,62 +263,44 @@ public final class JanksonSerde {
     }
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
-    private static void setFieldValueFromJson(Object target, Field f, JsonElement raw) {
-        Class<?> ft = f.getType();
+    private static void setFieldValueFromJson(Object target, Prop p, JsonElement raw) {
         try {
-            if (ft == String.class) { f.set(target, asString(raw, (String) f.get(target))); return; }
-            if (ft == boolean.class || ft == Boolean.class) { f.set(target, asBoolean(raw, (Boolean) f.get(target))); return; }
-            if (ft == int.class || ft == Integer.class) { f.set(target, asInt(raw, (Integer) f.get(target))); return; }
-            if (ft == long.class || ft == Long.class) { f.set(target, asLong(raw, (Long) f.get(target))); return; }
-            if (ft == double.class || ft == Double.class) { f.set(target, asDouble(raw, (Double) f.get(target))); return; }
-            if (ft == float.class || ft == Float.class) {
-                double d = asDouble(raw, ((Number) f.get(target)).doubleValue());
-                f.set(target, (float) d);
-                return;
-            }
-            if (Enum.class.isAssignableFrom(ft)) {
-                String s = asString(raw, null);
-                if (s != null) f.set(target, Enum.valueOf((Class<? extends Enum>) ft, s.trim().toUpperCase()));
-                return;
-            }
-
-            if (List.class.isAssignableFrom(ft)) {
-                Type g = f.getGenericType();
-                Class<?> elemType = Object.class;
-                if (g instanceof ParameterizedType pt) {
-                    Type t = pt.getActualTypeArguments()[0];
-                    if (t instanceof Class<?> c) elemType = c;
+            switch (p.kind) {
+                case STRING -> p.set(target, asString(raw, (String) p.get(target)));
+                case BOOLEAN -> p.set(target, asBoolean(raw, (Boolean) p.get(target)));
+                case INT -> p.set(target, asInt(raw, (Integer) p.get(target)));
+                case LONG -> p.set(target, asLong(raw, (Long) p.get(target)));
+                case DOUBLE -> p.set(target, asDouble(raw, (Double) p.get(target)));
+                case FLOAT -> {
+                    double d = asDouble(raw, ((Number) p.get(target)).doubleValue());
+                    p.set(target, (float) d);
                 }
-                List list = new ArrayList();
-                if (raw instanceof JsonArray arr) for (JsonElement el : arr) list.add(coerce(el, elemType, null));
-                f.set(target, list); return;
-            }
-
-            if (Map.class.isAssignableFrom(ft)) {
-                Type g = f.getGenericType();
-                Class<?> valType = Object.class;
-                if (g instanceof ParameterizedType pt) {
-                    Type vt = pt.getActualTypeArguments()[1];
-                    if (vt instanceof Class<?> c) valType = c;
+                case ENUM -> {
+                    String s = asString(raw, null);
+                    if (s != null) p.set(target, Enum.valueOf((Class<? extends Enum>) p.type, s.trim().toUpperCase()));
+                }
+                case LIST -> {
+                    List list = new ArrayList();
+                    if (raw instanceof JsonArray arr) for (JsonElement el : arr) list.add(coerce(el, p.elemType, null));
+                    p.set(target, list);
                 }
-                Map<String, Object> map = new LinkedHashMap<>();
-                if (raw instanceof JsonObject o) {
-                    for (String k : o.keySet().stream().toList()) {
-                        map.put(k, coerce(o.get(k), valType, null));
+                case MAP -> {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    if (raw instanceof JsonObject o) {
+                        for (String k : o.keySet().stream().toList()) {
+                            map.put(k, coerce(o.get(k), p.elemType, null));
+                        }
                     }
+                    p.set(target, map);
                 }
-                f.set(target, map);
-                return;
-            }
-
-            if (ft.isAnnotationPresent(JanksonObject.class)) {
-                Object child = f.get(target);
-                if (child == null) child = newInstance(ft);
-                if (raw instanceof JsonObject o) fillFrom(o, child);
-                f.set(target, child); return;
+                case OBJECT -> {
+                    Object child = p.get(target);
+                    if (child == null) child = SCHEMAS.get(p.type).newInstance();
+                    if (raw instanceof JsonObject o) fillFrom(o, child);
+                    p.set(target, child);
+                }
+                case OTHER -> {} // leave default
             }
-
-            // Else: leave default
         } catch (Throwable ignored) {}
     }
 
@@ -237,8 +322,11 @@ public final class JanksonSerde {
             } catch (Throwable ignored) {}
         }
 
-        if (want.isAnnotationPresent(JanksonObject.class) && raw instanceof JsonObject o) {
-            Object inst = newInstance(want); fillFrom(o, inst); return inst;
+        if (raw instanceof JsonObject o) {
+            Schema schema = SCHEMAS.get(want);
+            if (schema.annotated) {
+                Object inst = schema.newInstance(); fillFrom(o, inst); return inst;
+            }
         }
 
         if (raw instanceof JsonPrimitive p) return p.asString();
@@ -267,29 +355,6 @@ public final class JanksonSerde {
         return f.getName();
     }
 
-    private static List<Field> fieldsOf(Class<?> c) {
-        ArrayList<Field> out = new ArrayList<>();
-        for (Class<?> t = c; t != null && t != Object.class; t = t.getSuperclass()) {
-            for (Field f : t.getDeclaredFields()) { f.setAccessible(true); out.add(f); }
-        }
-        return out;
-    }
-
-    private static Object getFieldValue(Object o, Field f) {
-        try { return f.get(o); } catch (Throwable ignored) { return null; }
-    }
-
-    private static Object newInstance(Class<?> c) {
-        try {
-            var ct = c.getDeclaredConstructor();
-            ct.setAccessible(true);
-            return ct.newInstance();
-        } catch (Throwable t) {
-            try { return c.getDeclaredConstructor().newInstance(); }
-            catch (Throwable ignored) { return null; }
-        }
-    }
-
     private static String asString(JsonElement e, String def) {
         if (e instanceof JsonPrimitive p) {
             String s = p.asString();
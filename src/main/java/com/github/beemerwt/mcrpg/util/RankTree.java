@@ -0,0 +1,198 @@
+package com.github.beemerwt.mcrpg.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Order-statistic treap of (score, player) pairs, highest score first; ties broken by UUID.
+ * - put/remove/rankOf are O(log n); page(offset, limit) is O(log n + limit).
+ * - Moving an existing player reuses its node, so updates don't allocate.
+ * - Not thread-safe; callers synchronize.
+ */
+public final class RankTree {
+    public record Entry(UUID id, long score) {}
+
+    private static final class Node {
+        final UUID id;
+        long score;
+        final int priority;
+        int size = 1;
+        Node left, right;
+
+        Node(UUID id, long score, int priority) {
+            this.id = id;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private Node root;
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean contains(UUID id) {
+        return nodes.containsKey(id);
+    }
+
+    public Set<UUID> ids() {
+        return Collections.unmodifiableSet(nodes.keySet());
+    }
+
+    /** Current score, or 0 if not ranked. */
+    public long score(UUID id) {
+        Node n = nodes.get(id);
+        return (n != null) ? n.score : 0L;
+    }
+
+    /** Insert or move a player. Scores of zero or less are not ranked. */
+    public void put(UUID id, long score) {
+        Node node = nodes.get(id);
+        if (node != null) {
+            if (node.score == score) return;
+            root = delete(root, id, node.score);
+            if (score <= 0L) {
+                nodes.remove(id);
+                return;
+            }
+
+            node.score = score;
+            node.left = node.right = null;
+            node.size = 1;
+            root = insert(root, node);
+            return;
+        }
+
+        if (score <= 0L) return;
+        node = new Node(id, score, random.nextInt());
+        root = insert(root, node);
+        nodes.put(id, node);
+    }
+
+    public void remove(UUID id) {
+        Node node = nodes.remove(id);
+        if (node != null) root = delete(root, id, node.score);
+    }
+
+    /** 1-based rank, or 0 if the player isn't ranked. */
+    public int rankOf(UUID id) {
+        Node self = nodes.get(id);
+        if (self == null) return 0;
+        long s = self.score;
+
+        int before = 0;
+        Node n = root;
+        while (n != null) {
+            int c = compare(id, s, n);
+            if (c == 0) return before + size(n.left) + 1;
+            if (c < 0) {
+                n = n.left;
+            } else {
+                before += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return 0;
+    }
+
+    /** Entries at 0-based positions [offset, offset + limit). */
+    public List<Entry> page(int offset, int limit) {
+        List<Entry> out = new ArrayList<>(Math.max(0, limit));
+        if (offset < 0 || limit <= 0) return out;
+        collect(root, offset, limit, out);
+        return out;
+    }
+
+    // ---------- Internals ----------
+
+    private static int size(Node n) {
+        return (n == null) ? 0 : n.size;
+    }
+
+    private static void update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    /** Ordering: higher score first, then UUID ascending. Negative means (id, score) sorts before n. */
+    private static int compare(UUID id, long score, Node n) {
+        if (score != n.score) return (score > n.score) ? -1 : 1;
+        return id.compareTo(n.id);
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static Node insert(Node n, Node add) {
+        if (n == null) return add;
+
+        if (compare(add.id, add.score, n) < 0) {
+            n.left = insert(n.left, add);
+            if (n.left.priority > n.priority) n = rotateRight(n);
+        } else {
+            n.right = insert(n.right, add);
+            if (n.right.priority > n.priority) n = rotateLeft(n);
+        }
+
+        update(n);
+        return n;
+    }
+
+    private static Node delete(Node n, UUID id, long score) {
+        if (n == null) return null;
+
+        int c = compare(id, score, n);
+        if (c < 0) {
+            n.left = delete(n.left, id, score);
+        } else if (c > 0) {
+            n.right = delete(n.right, id, score);
+        } else {
+            if (n.left == null) return n.right;
+            if (n.right == null) return n.left;
+            if (n.left.priority > n.right.priority) {
+                n = rotateRight(n);
+                n.right = delete(n.right, id, score);
+            } else {
+                n = rotateLeft(n);
+                n.left = delete(n.left, id, score);
+            }
+        }
+
+        update(n);
+        return n;
+    }
+
+    private static void collect(Node n, int offset, int limit, List<Entry> out) {
+        if (n == null || out.size() >= limit) return;
+
+        int leftSize = size(n.left);
+        if (offset < leftSize) collect(n.left, offset, limit, out);
+        if (out.size() >= limit) return;
+
+        if (offset <= leftSize) out.add(new Entry(n.id, n.score));
+        collect(n.right, Math.max(0, offset - leftSize - 1), limit, out);
+    }
+}